@@ -0,0 +1,4 @@
+-- 未讀訊息計數（/api/me/counters、聊天室列表）與標記已讀（MySQL 8）
+-- ddl-auto=update 也會建立此索引；此腳本供手動部署使用
+
+CREATE INDEX idx_chat_messages_room_read ON chat_messages (chat_room_id, is_read);
@@ -0,0 +1,13 @@
+-- 刊登列表卡片：新增第一張圖片欄位，列表查詢不需讀取 image_paths (TEXT)
+-- 新資料由 Listing 的 @PrePersist / @PreUpdate 自動維護；此腳本補齊既有資料（MySQL 8）
+
+ALTER TABLE listings
+ADD COLUMN cover_image VARCHAR(255) NULL COMMENT '第一張圖片檔名';
+
+UPDATE listings
+SET cover_image = NULLIF(TRIM(JSON_UNQUOTE(JSON_EXTRACT(image_paths, '$[0]'))), '')
+WHERE cover_image IS NULL
+  AND JSON_VALID(image_paths);
+
+-- 檢查尚未補齊的資料（image_paths 非合法 JSON 時需手動處理）
+SELECT id, image_paths FROM listings WHERE cover_image IS NULL;
@@ -0,0 +1,18 @@
+-- 刊登圖片感知雜湊（dHash）與疑似盜圖標記（MySQL 8）
+-- 上傳時背景計算，建立刊登時與刊登同交易寫入；啟動時載入記憶體 BK-tree 做近似比對
+-- ddl-auto=update 也會建立此表與欄位；此腳本供手動部署使用
+-- 既有刊登沒有雜湊，只有之後建立的刊登會參與比對
+
+CREATE TABLE IF NOT EXISTS listing_image_hashes (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    listing_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    dhash BIGINT NOT NULL COMMENT '64 位元 dHash',
+    created_at DATETIME(6) NOT NULL,
+
+    INDEX idx_listing_image_hashes_listing (listing_id)
+);
+
+ALTER TABLE listings
+    ADD COLUMN duplicate_image_of BIGINT NULL COMMENT '圖片與其他使用者較早的刊登近似時，對方的 listing ID';
@@ -0,0 +1,10 @@
+-- 刊登搜尋文字欄位（MySQL 8）：關鍵字後備搜尋直接 LIKE search_text，不再對每列做 LOWER()
+-- 新資料由 Listing 的 @PrePersist / @PreUpdate 以 SearchText（NFKC + 小寫）自動維護
+-- 此腳本只能以 LOWER() 補齊既有資料；全形字元會在該刊登下次更新時正規化
+
+ALTER TABLE listings
+ADD COLUMN search_text TEXT NULL COMMENT '正規化後的卡片名稱、藝人、團體、描述';
+
+UPDATE listings
+SET search_text = LOWER(CONCAT_WS('\n', card_name, artist_name, group_name, description))
+WHERE search_text IS NULL;
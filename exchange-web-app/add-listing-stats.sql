@@ -0,0 +1,13 @@
+-- 刊登熱門度統計：瀏覽 / 提案次數與前向衰減熱門分數（MySQL 8）
+-- 由 ListingTrendingTracker 每 5 秒批次寫入；瀏覽頁 sort=trending 以 LEFT JOIN 排序
+-- ddl-auto=update 也會建立此表；此腳本供手動部署使用
+
+CREATE TABLE IF NOT EXISTS listing_stats (
+    listing_id BIGINT PRIMARY KEY COMMENT '與 listings.id 相同',
+    view_count BIGINT NOT NULL DEFAULT 0,
+    proposal_count BIGINT NOT NULL DEFAULT 0,
+    trending_score DOUBLE NOT NULL COMMENT 'log2 前向衰減分數，與時間無關可直接比較',
+    updated_at DATETIME(6) NOT NULL,
+
+    INDEX idx_listing_stats_trending (trending_score)
+);
@@ -0,0 +1,18 @@
+-- 刊登狀態排序欄位：瀏覽頁預設「可交換在前、已完成在後，同狀態新的在前」（MySQL 8）
+-- 新資料由 Listing 的 @PrePersist / @PreUpdate 依 status 自動維護；此腳本補齊既有資料
+-- 對應 Listing.Status 的 rank：AVAILABLE=0, LOCKED=1, PENDING=2, COMPLETED=3
+
+ALTER TABLE listings
+ADD COLUMN status_rank INT NOT NULL DEFAULT 0 COMMENT '狀態排序值';
+
+UPDATE listings
+SET status_rank = CASE status
+    WHEN 'AVAILABLE' THEN 0
+    WHEN 'LOCKED' THEN 1
+    WHEN 'PENDING' THEN 2
+    WHEN 'COMPLETED' THEN 3
+    ELSE 0
+END;
+
+-- ORDER BY status_rank, created_at DESC, id DESC 直接走索引，不需 filesort
+CREATE INDEX idx_listings_status_rank_created ON listings (status_rank, created_at DESC, id DESC);
@@ -0,0 +1,15 @@
+-- 刊登 ID 改由 pooled 序列產生（allocationSize = 50），讓批次 INSERT 可以使用 JDBC batch（MySQL 8）
+-- MySQL 沒有 SEQUENCE，Hibernate 以 listings_seq 資料表模擬
+-- ⚠️ 請在新版本第一次啟動「之前」執行，避免序列從 1 開始與既有 ID 衝突
+
+CREATE TABLE IF NOT EXISTS listings_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+DELETE FROM listings_seq;
+
+-- 起始值取目前最大 ID 再往後保留一段，pooled 分配不會撞到既有資料
+INSERT INTO listings_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 100 FROM listings;
+
+SELECT * FROM listings_seq;
@@ -0,0 +1,14 @@
+-- 交易外寄件匣：提案建立 / 接受時寫入，OutboxDispatcher 於交易提交後投遞聊天室、系統訊息與郵件（MySQL 8）
+-- ddl-auto=update 也會建立此表；此腳本供手動部署使用
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    type VARCHAR(32) NOT NULL COMMENT 'CREATE_CHAT_ROOM / LINK_CHAT_ROOM_SWAP / NOTIFICATION',
+    payload TEXT NOT NULL COMMENT '投遞參數（JSON）',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NULL COMMENT 'NULL 表示已超過重試上限',
+    last_error VARCHAR(500),
+    created_at DATETIME(6) NOT NULL,
+
+    INDEX idx_outbox_events_next_attempt (next_attempt_at, id)
+);
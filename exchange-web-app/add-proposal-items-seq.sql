@@ -0,0 +1,15 @@
+-- 提案明細 ID 改由 pooled 序列產生（allocationSize = 50），同一提案的多筆明細 INSERT 可使用 JDBC batch（MySQL 8）
+-- MySQL 沒有 SEQUENCE，Hibernate 以 proposal_items_seq 資料表模擬
+-- ⚠️ 請在新版本第一次啟動「之前」執行，避免序列從 1 開始與既有 ID 衝突
+
+CREATE TABLE IF NOT EXISTS proposal_items_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+DELETE FROM proposal_items_seq;
+
+-- 起始值取目前最大 ID 再往後保留一段，pooled 分配不會撞到既有資料
+INSERT INTO proposal_items_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 100 FROM proposal_items;
+
+SELECT * FROM proposal_items_seq;
@@ -0,0 +1,7 @@
+-- 提案新增 SUPERSEDED 狀態：刊登在其他交換中被鎖定時，涉及該刊登的 PENDING 提案由系統自動失效（MySQL 8）
+-- Hibernate 在 MySQL 以 ENUM 型別建立 status 欄位，ddl-auto=update 不會修改既有欄位型別，需手動執行此腳本
+
+ALTER TABLE proposals MODIFY COLUMN status VARCHAR(16) NOT NULL;
+
+-- 新通知類型 PROPOSAL_SUPERSEDED；由 create-email-notifications-table.sql 建立的表已是 VARCHAR，重複執行無影響
+ALTER TABLE email_notifications MODIFY COLUMN notification_type VARCHAR(50) NOT NULL;
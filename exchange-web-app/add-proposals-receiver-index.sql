@@ -0,0 +1,4 @@
+-- 收到的提案列表依 receiver_id 分頁與計數（MySQL 8）
+-- ddl-auto=update 也會建立此索引；此腳本供手動部署使用
+
+CREATE INDEX idx_proposals_receiver ON proposals (receiver_id);
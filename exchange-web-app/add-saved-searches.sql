@@ -0,0 +1,15 @@
+-- 關注搜尋：使用者保存的關鍵字，新刊登符合時寄送 SAVED_SEARCH_MATCH 通知（MySQL 8）
+-- ddl-auto=update 也會建立此表；此腳本供手動部署使用
+
+CREATE TABLE IF NOT EXISTS saved_searches (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    query_text VARCHAR(100) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+
+    INDEX idx_saved_searches_user (user_id),
+
+    CONSTRAINT fk_saved_searches_user
+        FOREIGN KEY (user_id) REFERENCES users(id)
+        ON DELETE CASCADE
+);
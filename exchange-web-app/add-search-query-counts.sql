@@ -0,0 +1,9 @@
+-- 熱門搜尋關鍵字快照（MySQL 8）
+-- SearchQueryAnalytics 每分鐘以記憶體中的前 100 名整批覆寫；重新啟動時據此預熱搜尋索引
+-- ddl-auto=update 也會建立此表；此腳本供手動部署使用
+
+CREATE TABLE IF NOT EXISTS search_query_counts (
+    query_text VARCHAR(100) PRIMARY KEY COMMENT '已正規化（NFKC、小寫）的關鍵字',
+    hits BIGINT NOT NULL COMMENT 'count-min sketch 估計次數',
+    updated_at DATETIME(6) NOT NULL
+);
@@ -0,0 +1,18 @@
+-- 刊登圖片欄位統一為 JSON 陣列格式（MySQL 8）
+-- 程式已改由 ListingImagesConverter 讀寫 image_paths；舊資料若是單一檔名或以逗號分隔的字串，
+-- 讀取時仍可解析，但建議執行此腳本一次轉為標準格式
+
+-- 逗號分隔 / 單一檔名 -> ["a.jpg","b.jpg"]
+UPDATE listings
+SET image_paths = CONCAT('["', REPLACE(REPLACE(TRIM(image_paths), ' ', ''), ',', '","'), '"]')
+WHERE image_paths IS NOT NULL
+  AND NOT JSON_VALID(image_paths);
+
+-- 補齊列表封面圖片（見 add-listing-cover-image.sql）
+UPDATE listings
+SET cover_image = NULLIF(TRIM(JSON_UNQUOTE(JSON_EXTRACT(image_paths, '$[0]'))), '')
+WHERE cover_image IS NULL
+  AND JSON_VALID(image_paths);
+
+-- 檢查仍非 JSON 的資料
+SELECT id, image_paths FROM listings WHERE NOT JSON_VALID(image_paths);
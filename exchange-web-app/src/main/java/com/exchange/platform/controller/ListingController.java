@@ -1,8 +1,16 @@
 package com.exchange.platform.controller;
 
+import com.exchange.platform.dto.BulkCreateListingRequest;
 import com.exchange.platform.dto.CreateListingRequest;
 import com.exchange.platform.dto.ListingDTO;
+import com.exchange.platform.dto.ListingFacetFilter;
+import com.exchange.platform.dto.ListingFacetsDTO;
+import com.exchange.platform.dto.ListingSliceDTO;
+import com.exchange.platform.dto.ListingSuggestionDTO;
+import com.exchange.platform.dto.TopQueryDTO;
 import com.exchange.platform.service.ListingService;
+import com.exchange.platform.service.ListingTrendingTracker;
+import com.exchange.platform.service.SearchQueryAnalytics;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +27,8 @@ public class ListingController {
 
     private final ListingService listingService;
     private final com.exchange.platform.service.ProposalService proposalService;
+    private final ListingTrendingTracker listingTrendingTracker;
+    private final SearchQueryAnalytics searchQueryAnalytics;
 
     @PostMapping
     public ResponseEntity<ListingDTO> create(@Valid @RequestBody CreateListingRequest request, HttpSession session) {
@@ -26,19 +36,82 @@ public class ListingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(dto);
     }
 
+    /**
+     * 批次建立刊登（一次最多 300 筆）
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<ListingDTO>> createBulk(@Valid @RequestBody BulkCreateListingRequest request,
+                                                       HttpSession session) {
+        List<ListingDTO> dtos = listingService.createBulk(request.getListings(), session);
+        return ResponseEntity.status(HttpStatus.CREATED).body(dtos);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ListingDTO> getById(@PathVariable Long id) {
         ListingDTO dto = listingService.getById(id);
+        listingTrendingTracker.recordView(id);
         return ResponseEntity.ok(dto);
     }
 
+    /**
+     * 列表查詢；帶 ids（例如 ids=3,1,2）時改為批次取得指定刊登，依請求順序回傳，忽略其他參數
+     */
     @GetMapping
     public ResponseEntity<List<ListingDTO>> list(@RequestParam(required = false) Integer page,
                                                  @RequestParam(required = false) Integer size,
                                                  @RequestParam(required = false) String q,
                                                  @RequestParam(required = false) String sort,
+                                                 @RequestParam(required = false) List<Long> ids,
+                                                 ListingFacetFilter filter,
                                                  HttpSession session) {
-        return ResponseEntity.ok(listingService.list(page, size, q, sort, session));
+        if (ids != null) {
+            return ResponseEntity.ok(listingService.getByIds(ids, session));
+        }
+        return ResponseEntity.ok(listingService.list(page, size, q, sort, filter, session));
+    }
+
+    /**
+     * 篩選選單資料：各篩選欄位的值與筆數；limit 限制團體、藝人回傳的值數量
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ListingFacetsDTO> facets(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(listingService.facets(Math.max(1, Math.min(limit, 200))));
+    }
+
+    /**
+     * 搜尋自動完成：回傳以 prefix 開頭的卡片名稱 / 藝人 / 團體（僅可交換的刊登）
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ListingSuggestionDTO>> suggest(@RequestParam(required = false) String prefix,
+                                                              @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(listingService.suggest(prefix, limit));
+    }
+
+    /**
+     * 熱門搜尋關鍵字（瀏覽頁的搜尋次數，依估計次數由多到少）
+     */
+    @GetMapping("/top-queries")
+    public ResponseEntity<List<TopQueryDTO>> topQueries(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(searchQueryAnalytics.top(Math.max(1, Math.min(limit, 100))));
+    }
+
+    /**
+     * 游標分頁（無限捲動用）：第一次不帶 cursor，之後帶回上一次的 nextCursor
+     * mine=true 時只列出自己的刊登（需登入）
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<ListingSliceDTO> scroll(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer size,
+                                                  @RequestParam(required = false) String q,
+                                                  @RequestParam(required = false) String sort,
+                                                  @RequestParam(defaultValue = "false") boolean mine,
+                                                  ListingFacetFilter filter,
+                                                  HttpSession session) {
+        Long userId = (Long) session.getAttribute("userId");
+        if (mine && userId == null) {
+            throw new ListingService.UnauthorizedException();
+        }
+        return ResponseEntity.ok(listingService.scroll(cursor, size, q, sort, mine ? userId : null, null, filter, userId));
     }
 
     @PutMapping("/{id}")
@@ -89,4 +162,14 @@ public class ListingController {
     public ResponseEntity<Void> handleConflict() {
         return ResponseEntity.status(HttpStatus.CONFLICT).build();
     }
+
+    @ExceptionHandler(ListingService.TooManyIdsException.class)
+    public ResponseEntity<Void> handleTooManyIds() {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+
+    @ExceptionHandler(ListingService.InvalidCursorException.class)
+    public ResponseEntity<Void> handleInvalidCursor() {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
 }
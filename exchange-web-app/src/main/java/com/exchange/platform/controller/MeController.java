@@ -0,0 +1,26 @@
+package com.exchange.platform.controller;
+
+import com.exchange.platform.dto.UserCountersDTO;
+import com.exchange.platform.service.UserCounterService;
+import jakarta.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/me")
+@RequiredArgsConstructor
+public class MeController {
+
+    private final UserCounterService userCounterService;
+
+    // 導覽列徽章：收到的待回覆提案、進行中的交換、未讀訊息
+    @GetMapping("/counters")
+    public ResponseEntity<UserCountersDTO> counters(HttpSession session) {
+        return ResponseEntity.ok(userCounterService.get(session));
+    }
+
+    @ExceptionHandler(UserCounterService.UnauthorizedException.class)
+    public ResponseEntity<Void> handleUnauthorized() { return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build(); }
+}
@@ -0,0 +1,64 @@
+package com.exchange.platform.controller;
+
+import com.exchange.platform.dto.CreateSavedSearchRequest;
+import com.exchange.platform.dto.SavedSearchDTO;
+import com.exchange.platform.service.SavedSearchService;
+import jakarta.servlet.http.HttpSession;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/saved-searches")
+@RequiredArgsConstructor
+public class SavedSearchController {
+
+    private final SavedSearchService savedSearchService;
+
+    @GetMapping
+    public ResponseEntity<List<SavedSearchDTO>> listMine(HttpSession session) {
+        return ResponseEntity.ok(savedSearchService.listMine(session));
+    }
+
+    @PostMapping
+    public ResponseEntity<SavedSearchDTO> create(@Valid @RequestBody CreateSavedSearchRequest request,
+                                                 HttpSession session) {
+        SavedSearchDTO dto = savedSearchService.create(request, session);
+        return ResponseEntity.status(HttpStatus.CREATED).body(dto);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id, HttpSession session) {
+        savedSearchService.delete(id, session);
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(SavedSearchService.UnauthorizedException.class)
+    public ResponseEntity<Void> handleUnauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    @ExceptionHandler(SavedSearchService.NotFoundException.class)
+    public ResponseEntity<Void> handleNotFound() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    @ExceptionHandler(SavedSearchService.ForbiddenException.class)
+    public ResponseEntity<Void> handleForbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    @ExceptionHandler(SavedSearchService.ConflictException.class)
+    public ResponseEntity<Void> handleConflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @ExceptionHandler(SavedSearchService.InvalidQueryException.class)
+    public ResponseEntity<Void> handleInvalidQuery() {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+}
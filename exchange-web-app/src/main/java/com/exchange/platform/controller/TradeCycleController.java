@@ -0,0 +1,32 @@
+package com.exchange.platform.controller;
+
+import com.exchange.platform.dto.TradeCycleDTO;
+import com.exchange.platform.service.TradeCycleService;
+import jakarta.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/trade-cycles")
+@RequiredArgsConstructor
+public class TradeCycleController {
+
+    private final TradeCycleService tradeCycleService;
+
+    /**
+     * 目前使用者參與的多方交換建議（3~4 人循環）
+     */
+    @GetMapping
+    public ResponseEntity<List<TradeCycleDTO>> suggestions(HttpSession session) {
+        return ResponseEntity.ok(tradeCycleService.suggestions(session));
+    }
+
+    @ExceptionHandler(TradeCycleService.UnauthorizedException.class)
+    public ResponseEntity<Void> handleUnauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+}
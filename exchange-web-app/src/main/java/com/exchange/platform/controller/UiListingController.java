@@ -1,7 +1,11 @@
 package com.exchange.platform.controller;
 
+import com.exchange.platform.dto.ListingCardDTO;
 import com.exchange.platform.dto.ListingDTO;
+import com.exchange.platform.dto.ListingFacetFilter;
+import com.exchange.platform.service.ListingImageHashService;
 import com.exchange.platform.service.ListingService;
+import com.exchange.platform.service.SearchQueryAnalytics;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -25,6 +29,8 @@ import java.util.UUID;
 public class UiListingController {
 
     private final ListingService listingService;
+    private final ListingImageHashService listingImageHashService;
+    private final SearchQueryAnalytics searchQueryAnalytics;
     private final com.exchange.platform.repository.UserRepository userRepository;
 
     // Home redirect to listings
@@ -43,6 +49,7 @@ public class UiListingController {
                            @RequestParam(required = false) Integer size,
                            @RequestParam(required = false) String q,
                            @RequestParam(required = false) String sort,
+                           @ModelAttribute("filter") ListingFacetFilter filter,
                            HttpSession session,
                            Model model) {
         // 如果未登入，重定向到登入頁
@@ -53,11 +60,15 @@ public class UiListingController {
         // 預設值（與後端 API 對齊：page 1 起算、size 預設 6）
         Integer pageArg = (page == null || page <= 0) ? 1 : page;
         Integer sizeArg = (size == null || size <= 0) ? 6 : Math.min(size, 100);
-        String sortArg = (sort == null || sort.isBlank()) ? "createdAt,DESC" : sort;
+        String sortArg = (sort == null || sort.isBlank()) ? "statusRank" : sort;
 
         Long userId = (Long) session.getAttribute("userId");
-        // 排除當前使用者的刊登
-        Page<ListingDTO> pageResult = listingService.listPage(pageArg, sizeArg, q, sortArg, userId);
+        // 熱門關鍵字統計：只計第一頁，翻頁不重複計算
+        if (pageArg == 1 && q != null && !q.isBlank()) {
+            searchQueryAnalytics.record(q);
+        }
+        // 排除當前使用者的刊登，並套用篩選條件
+        Page<ListingCardDTO> pageResult = listingService.listCardPage(pageArg, sizeArg, q, sortArg, userId, filter);
 
         model.addAttribute("items", pageResult.getContent());
         model.addAttribute("page", pageArg);
@@ -67,6 +78,7 @@ public class UiListingController {
         model.addAttribute("totalPages", pageResult.getTotalPages());
         model.addAttribute("totalElements", pageResult.getTotalElements());
         model.addAttribute("currentUserId", userId);
+        model.addAttribute("facets", listingService.facets(20));
         
         // 加入當前使用者的顯示名稱
         String currentUserDisplayName = userRepository.findById(userId)
@@ -93,7 +105,7 @@ public class UiListingController {
         // 預設值（與後端 API 對齊：page 1 起算、size 預設 6）
         Integer pageArg = (page == null || page <= 0) ? 1 : page;
         Integer sizeArg = (size == null || size <= 0) ? 6 : Math.min(size, 100);
-        String sortArg = (sort == null || sort.isBlank()) ? "createdAt,DESC" : sort;
+        String sortArg = (sort == null || sort.isBlank()) ? "statusRank" : sort;
 
         Long userId = (Long) session.getAttribute("userId");
         // 只顯示當前使用者的刊登
@@ -194,6 +206,8 @@ public class UiListingController {
             // 儲存檔案
             Path filePath = uploadDir.resolve(fileName);
             Files.copy(file.getInputStream(), filePath);
+            // 感知雜湊於背景計算，建立刊登時用於比對盜圖
+            listingImageHashService.submit(fileName, filePath, (Long) session.getAttribute("userId"));
             
             response.put("success", true);
             response.put("fileName", fileName);
@@ -0,0 +1,17 @@
+package com.exchange.platform.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkCreateListingRequest {
+
+    // 一次最多 300 筆，每筆的檢查規則與單筆建立相同
+    @NotEmpty(message = "刊登清單不可為空")
+    @Size(max = 300, message = "一次最多建立300筆刊登")
+    private List<@Valid CreateListingRequest> listings;
+}
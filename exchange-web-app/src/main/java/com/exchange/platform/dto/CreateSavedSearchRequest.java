@@ -0,0 +1,14 @@
+package com.exchange.platform.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class CreateSavedSearchRequest {
+
+    // 關注的關鍵字（卡片名稱、藝人、團體或描述中出現的文字）
+    @NotBlank(message = "關鍵字為必填")
+    @Size(max = 100, message = "關鍵字不可超過100個字元")
+    private String query;
+}
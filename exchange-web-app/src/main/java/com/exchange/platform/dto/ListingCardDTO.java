@@ -0,0 +1,47 @@
+package com.exchange.platform.dto;
+
+import com.exchange.platform.entity.Listing;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 刊登列表卡片（瀏覽頁用）
+ * 只含卡片顯示需要的欄位與第一張圖片；完整內容請用 ListingDTO
+ */
+@Data
+@Builder(toBuilder = true)
+public class ListingCardDTO {
+    private Long id;
+
+    private String cardName;
+
+    private String groupName;
+
+    private String artistName;
+
+    private Listing.CardSource cardSource;
+    private String cardSourceDisplay;
+
+    private Integer conditionRating;
+
+    private Boolean hasProtection;
+
+    // 第一張圖片的 URL，沒有圖片時為 null
+    private String coverImageUrl;
+
+    private Long userId;
+    private String ownerDisplayName;
+    private Boolean isMine;
+
+    private Listing.Status status;
+    private String statusDisplay;
+
+    private LocalDateTime createdAt;
+
+    // 複製（欄位皆為不可變值），供快取保存 / 回傳各自獨立的實例
+    public ListingCardDTO copy() {
+        return toBuilder().build();
+    }
+}
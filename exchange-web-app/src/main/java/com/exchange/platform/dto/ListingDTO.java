@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ListingDTO {
     private Long id;
     
@@ -44,6 +44,7 @@ public class ListingDTO {
     private Long userId;
     private String ownerDisplayName; // 擁有者顯示名稱
     private Boolean isMine; // 是否為當前使用者的卡片
+    private Long duplicateImageOf; // 圖片與其他使用者的刊登近似時，對方的 listing ID
     
     // 10. 上架時間
     private LocalDateTime createdAt;
@@ -54,4 +55,9 @@ public class ListingDTO {
     // 11. 卡片狀態 (必填)
     private Listing.Status status;
     private String statusDisplay; // 狀態的顯示名稱
+
+    // 複製（圖片清單轉為不可變清單），供快取保存 / 回傳各自獨立的實例
+    public ListingDTO copy() {
+        return toBuilder().imageUrls(imageUrls == null ? null : List.copyOf(imageUrls)).build();
+    }
 }
@@ -0,0 +1,33 @@
+package com.exchange.platform.dto;
+
+import com.exchange.platform.entity.Listing;
+import lombok.Data;
+
+/**
+ * 刊登瀏覽的篩選條件（皆為選填，全部以 AND 組合）
+ * 由 query string 綁定，例如 ?groupName=IVE&cardSource=ALBUM&hasProtection=true
+ */
+@Data
+public class ListingFacetFilter {
+    private String groupName;
+
+    private String artistName;
+
+    private Listing.CardSource cardSource;
+
+    // 卡況評分（1-10，完全相符）
+    private Integer conditionRating;
+
+    private Boolean hasProtection;
+
+    private Listing.Status status;
+
+    public boolean isEmpty() {
+        return isBlank(groupName) && isBlank(artistName) && cardSource == null
+                && conditionRating == null && hasProtection == null && status == null;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+}
@@ -0,0 +1,37 @@
+package com.exchange.platform.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 刊登篩選欄位的各值筆數（依筆數由多到少）
+ */
+@Data
+@Builder
+public class ListingFacetsDTO {
+    private List<FacetCount> groupNames;
+
+    private List<FacetCount> artistNames;
+
+    private List<FacetCount> cardSources;
+
+    private List<FacetCount> conditionRatings;
+
+    private List<FacetCount> hasProtection;
+
+    private List<FacetCount> statuses;
+
+    @Data
+    @Builder
+    public static class FacetCount {
+        // 查詢參數值（enum 為名稱）
+        private String value;
+
+        // 顯示名稱
+        private String label;
+
+        private long count;
+    }
+}
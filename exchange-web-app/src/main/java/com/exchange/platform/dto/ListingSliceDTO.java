@@ -0,0 +1,21 @@
+package com.exchange.platform.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游標分頁（keyset）結果
+ * 不計算總筆數；nextCursor 為不透明字串，帶回下一次請求即可取得下一段
+ */
+@Data
+@Builder
+public class ListingSliceDTO {
+    private List<ListingDTO> items;
+
+    // 下一段的游標，沒有下一段時為 null
+    private String nextCursor;
+
+    private Boolean hasNext;
+}
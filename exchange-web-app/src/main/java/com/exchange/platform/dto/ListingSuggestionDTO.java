@@ -0,0 +1,24 @@
+package com.exchange.platform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 搜尋自動完成建議
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingSuggestionDTO {
+    // 建議文字（原始大小寫）
+    private String value;
+
+    // 來源欄位：cardName / artistName / groupName
+    private String field;
+
+    // 目前可交換刊登中使用此值的筆數
+    private int count;
+}
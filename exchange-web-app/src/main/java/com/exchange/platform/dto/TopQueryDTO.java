@@ -0,0 +1,21 @@
+package com.exchange.platform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 熱門搜尋關鍵字
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopQueryDTO {
+    // 已正規化的關鍵字（NFKC、小寫）
+    private String query;
+
+    // 估計的搜尋次數（count-min sketch，可能略為高估）
+    private long count;
+}
@@ -0,0 +1,34 @@
+package com.exchange.platform.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 多方交換建議：循環中每位參與者各交出一張卡、各取得一張想要的卡
+ */
+@Data
+@Builder
+public class TradeCycleDTO {
+    // 參與人數
+    private Integer size;
+
+    private List<Leg> legs;
+
+    @Data
+    @Builder
+    public static class Leg {
+        // 交出卡片的一方（刊登擁有者）
+        private Long giverId;
+        private String giverDisplayName;
+
+        // 取得卡片的一方（關注搜尋符合此刊登）
+        private Long receiverId;
+        private String receiverDisplayName;
+
+        private Long listingId;
+        private String cardName;
+        private String coverImageUrl;
+    }
+}
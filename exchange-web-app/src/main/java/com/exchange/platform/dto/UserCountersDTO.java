@@ -0,0 +1,24 @@
+package com.exchange.platform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 導覽列徽章用的個人計數
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCountersDTO {
+    // 收到且仍待回覆（PENDING）的提案數
+    private long pendingProposals;
+
+    // 進行中（PENDING / IN_PROGRESS）的交換數
+    private long activeSwaps;
+
+    // 所有聊天室中對方傳來的未讀訊息數
+    private long unreadMessages;
+}
@@ -9,7 +9,10 @@ import java.time.LocalDateTime;
  * 永久保留，不允許刪除
  */
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+        // 未讀計數（單一聊天室與使用者全部聊天室）、標記已讀
+        @Index(name = "idx_chat_messages_room_read", columnList = "chat_room_id,is_read")
+})
 public class ChatMessage {
     
     @Id
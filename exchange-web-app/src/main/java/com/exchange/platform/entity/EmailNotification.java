@@ -71,6 +71,7 @@ public class EmailNotification {
         PROPOSAL_ACCEPTED("提案被接受"),
         PROPOSAL_REJECTED("提案被拒絕"),
         PROPOSAL_WITHDRAWN("提案被撤回"),
+        PROPOSAL_SUPERSEDED("提案已失效"),
         
         // 交換流程相關
         SWAP_CONFIRMED("交換確認"),
@@ -87,6 +88,9 @@ public class EmailNotification {
         // 完成相關
         EXCHANGE_COMPLETED("交換完成"),
         REVIEW_REMINDER("評價提醒"),
+
+        // 關注搜尋相關
+        SAVED_SEARCH_MATCH("關注的卡片上架"),
         
         // 系統相關
         DISPUTE_CREATED("爭議處理開始"),
@@ -2,16 +2,22 @@ package com.exchange.platform.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Mutability;
+import org.hibernate.type.descriptor.java.Immutability;
 
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Table(name = "listings", indexes = {
         @Index(name = "idx_listings_user", columnList = "user_id"),
+        @Index(name = "idx_listings_user_created", columnList = "user_id,created_at,id"),
         @Index(name = "idx_listings_created", columnList = "created_at"),
-        @Index(name = "idx_listings_status", columnList = "status")
+        @Index(name = "idx_listings_status", columnList = "status"),
+        @Index(name = "idx_listings_status_rank_created", columnList = "status_rank,created_at DESC,id DESC")
 })
+@EntityListeners(ListingEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,8 +25,10 @@ import java.time.LocalDateTime;
 @Builder
 public class Listing {
 
+    // pooled 序列（MySQL 以 listings_seq 資料表模擬）：一次取 50 個 ID，INSERT 才能走 JDBC 批次
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "listings_seq")
+    @SequenceGenerator(name = "listings_seq", sequenceName = "listings_seq", allocationSize = 50)
     private Long id;
 
     // 1. 卡片名稱 (必填)
@@ -58,8 +66,23 @@ public class Listing {
     private String remarks;
 
     // 9. 圖片 (必填, JSON array of image file paths)
+    // 值物件不可變，Hibernate 不需為 dirty-checking 另外複製、重新解析
+    @Convert(converter = ListingImagesConverter.class)
+    @Mutability(Immutability.class)
     @Column(name = "image_paths", nullable = false, columnDefinition = "TEXT")
-    private String imagePaths;
+    private ListingImages imagePaths;
+
+    // 搜尋用文字：卡片名稱、藝人、團體、描述正規化後串接（見 SearchText），SQL 後備搜尋直接 LIKE 此欄
+    @Column(name = "search_text", columnDefinition = "TEXT")
+    private String searchText;
+
+    // 第一張圖片檔名（由 imagePaths 推導，供列表卡片使用，避免讀取 TEXT 欄位）
+    @Column(name = "cover_image", length = 255)
+    private String coverImage;
+
+    // 疑似盜圖：建立時圖片與其他使用者的刊登近似（感知雜湊），記錄對方的 listing ID
+    @Column(name = "duplicate_image_of")
+    private Long duplicateImageOf;
 
     // 擁有者ID
     @Column(name = "user_id", nullable = false)
@@ -79,14 +102,26 @@ public class Listing {
     @Builder.Default
     private Status status = Status.AVAILABLE;
 
+    // 狀態排序值（由 status 推導）：瀏覽頁預設排序，可交換在前、已完成在後
+    @Column(name = "status_rank", nullable = false)
+    private Integer statusRank;
+
+    // 最近一次載入 / 寫入時的快照（不存 DB），供 ListingEntityListener 產生異動前狀態
+    @Transient
+    private ListingSnapshot persistedState;
+
     @PrePersist
     public void prePersist() {
-        LocalDateTime now = LocalDateTime.now();
+        // 截到微秒，與 DB datetime(6) 一致，keyset 游標比較才不會因精度差異漏資料
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         this.createdAt = now;
         this.updatedAt = now;
+        this.coverImage = images().firstFileName();
+        this.searchText = SearchText.of(cardName, artistName, groupName, description);
         if (this.status == null) {
             this.status = Status.AVAILABLE;
         }
+        this.statusRank = this.status.getRank();
         if (this.hasProtection == null) {
             this.hasProtection = false;
         }
@@ -94,25 +129,63 @@ public class Listing {
 
     @PreUpdate
     public void preUpdate() {
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        this.coverImage = images().firstFileName();
+        this.searchText = SearchText.of(cardName, artistName, groupName, description);
+        this.statusRank = this.status != null ? this.status.getRank() : null;
+    }
+
+    // 圖片清單，未設定時為空清單
+    public ListingImages images() {
+        return imagePaths != null ? imagePaths : ListingImages.EMPTY;
+    }
+
+    public void setImagePaths(ListingImages imagePaths) {
+        this.imagePaths = imagePaths;
+    }
+
+    // 以 JSON 陣列字串設定（相容舊呼叫端與測試資料）
+    public void setImagePaths(String imagePaths) {
+        this.imagePaths = ListingImages.parse(imagePaths);
+    }
+
+    public static class ListingBuilder {
+        private ListingImages imagePaths;
+
+        public ListingBuilder imagePaths(ListingImages imagePaths) {
+            this.imagePaths = imagePaths;
+            return this;
+        }
+
+        public ListingBuilder imagePaths(String imagePaths) {
+            this.imagePaths = ListingImages.parse(imagePaths);
+            return this;
+        }
     }
 
     // 卡片狀態枚舉
     public enum Status {
-        AVAILABLE("可交換"),
-        LOCKED("已鎖定"),
-        PENDING("交換中"),
-        COMPLETED("已完成");
+        AVAILABLE("可交換", 0),
+        LOCKED("已鎖定", 1),
+        PENDING("交換中", 2),
+        COMPLETED("已完成", 3);
 
         private final String displayName;
+        // 瀏覽排序：數字小的在前
+        private final int rank;
 
-        Status(String displayName) {
+        Status(String displayName, int rank) {
             this.displayName = displayName;
+            this.rank = rank;
         }
 
         public String getDisplayName() {
             return displayName;
         }
+
+        public int getRank() {
+            return rank;
+        }
     }
 
     // 卡片來源枚舉
@@ -0,0 +1,7 @@
+package com.exchange.platform.entity;
+
+/**
+ * 啟動時所有刊登都已以 ListingChangedEvent 發佈完畢
+ * 記憶體索引收到此事件後才視為就緒
+ */
+public record ListingCatalogLoadedEvent(long listingCount) {}
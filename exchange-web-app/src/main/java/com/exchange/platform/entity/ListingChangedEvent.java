@@ -0,0 +1,27 @@
+package com.exchange.platform.entity;
+
+/**
+ * 刊登異動事件
+ * before 為異動前狀態（新增時為 null），after 為異動後狀態（刪除時為 null）
+ */
+public record ListingChangedEvent(ListingSnapshot before, ListingSnapshot after) {
+
+    public Long listingId() {
+        return after != null ? after.id() : before.id();
+    }
+
+    public boolean isCreated() {
+        return before == null && after != null;
+    }
+
+    public boolean isDeleted() {
+        return before != null && after == null;
+    }
+
+    /**
+     * 反向事件（交易回滾時用來還原記憶體狀態）
+     */
+    public ListingChangedEvent reversed() {
+        return new ListingChangedEvent(after, before);
+    }
+}
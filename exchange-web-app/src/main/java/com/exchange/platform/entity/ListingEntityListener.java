@@ -0,0 +1,98 @@
+package com.exchange.platform.entity;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 刊登 JPA 監聽器
+ * 將每一次 insert / update / delete 轉成 ListingChangedEvent，供記憶體索引同步
+ * 事件在 flush 當下立即發佈（同一交易內的查詢即可看到）；若交易回滾，依相反順序發佈反向事件還原
+ * 由 Hibernate 透過 Spring Bean 容器建立，因此可注入 Spring Bean
+ */
+public class ListingEntityListener {
+
+    private static final Object PENDING_EVENTS_KEY = ListingEntityListener.class.getName() + ".PENDING";
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostLoad
+    public void postLoad(Listing listing) {
+        listing.setPersistedState(ListingSnapshot.of(listing));
+    }
+
+    @PostPersist
+    public void postPersist(Listing listing) {
+        ListingSnapshot after = ListingSnapshot.of(listing);
+        listing.setPersistedState(after);
+        publish(new ListingChangedEvent(null, after));
+    }
+
+    @PostUpdate
+    public void postUpdate(Listing listing) {
+        ListingSnapshot before = listing.getPersistedState();
+        ListingSnapshot after = ListingSnapshot.of(listing);
+        listing.setPersistedState(after);
+        publish(new ListingChangedEvent(before, after));
+    }
+
+    @PostRemove
+    public void postRemove(Listing listing) {
+        ListingSnapshot before = listing.getPersistedState() != null
+                ? listing.getPersistedState()
+                : ListingSnapshot.of(listing);
+        listing.setPersistedState(null);
+        publish(new ListingChangedEvent(before, null));
+    }
+
+    private void publish(ListingChangedEvent event) {
+        publish(eventPublisher, event);
+    }
+
+    /**
+     * 發佈異動事件並登記回滾時的反向事件
+     * 也供不經 Entity 生命週期的批次 UPDATE 使用（見 ListingRepositoryImpl.transitionStatus）
+     */
+    public static void publish(ApplicationEventPublisher eventPublisher, ListingChangedEvent event) {
+        if (eventPublisher == null) {
+            return;
+        }
+        eventPublisher.publishEvent(event);
+        rememberForRollback(eventPublisher, event);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void rememberForRollback(ApplicationEventPublisher eventPublisher, ListingChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        List<ListingChangedEvent> pending =
+                (List<ListingChangedEvent>) TransactionSynchronizationManager.getResource(PENDING_EVENTS_KEY);
+        if (pending == null) {
+            List<ListingChangedEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(PENDING_EVENTS_KEY, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_EVENTS_KEY);
+                    if (status == STATUS_ROLLED_BACK) {
+                        for (int i = events.size() - 1; i >= 0; i--) {
+                            eventPublisher.publishEvent(events.get(i).reversed());
+                        }
+                    }
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+}
@@ -0,0 +1,47 @@
+package com.exchange.platform.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 刊登圖片的感知雜湊（dHash，64 位元）
+ * 上傳時於背景計算，刊登建立時與刊登同交易寫入；啟動時載入 ListingImageHashService 的 BK-tree 供近似比對
+ */
+@Entity
+@Table(name = "listing_image_hashes", indexes = {
+        @Index(name = "idx_listing_image_hashes_listing", columnList = "listing_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ListingImageHash {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "listing_id", nullable = false)
+    private Long listingId;
+
+    // 刊登擁有者（比對時排除自己的圖片）
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "file_name", nullable = false, length = 255)
+    private String fileName;
+
+    @Column(name = "dhash", nullable = false)
+    private Long hash;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,117 @@
+package com.exchange.platform.entity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 刊登圖片清單（不可變值物件）
+ *
+ * 以 JSON 陣列字串存於 listings.image_paths，由 ListingImagesConverter 在載入時解析一次；
+ * 對外的 /images/... URL 在建立時就計算好，DTO 轉換不需再解析字串。
+ */
+public final class ListingImages implements Serializable {
+
+    public static final ListingImages EMPTY = new ListingImages(List.of());
+
+    private static final String URL_PREFIX = "/images/";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() {};
+
+    private final List<String> fileNames;
+    private final List<String> urls;
+
+    private ListingImages(List<String> fileNames) {
+        this.fileNames = List.copyOf(fileNames);
+        this.urls = this.fileNames.stream().map(ListingImages::toUrl).toList();
+    }
+
+    public static ListingImages of(List<String> fileNames) {
+        if (fileNames == null) {
+            return EMPTY;
+        }
+        List<String> cleaned = new ArrayList<>(fileNames.size());
+        for (String name : fileNames) {
+            if (name != null && !name.isBlank()) {
+                cleaned.add(name.trim());
+            }
+        }
+        return cleaned.isEmpty() ? EMPTY : new ListingImages(cleaned);
+    }
+
+    /**
+     * 解析資料庫中的字串：標準格式為 JSON 陣列；舊資料可能是單一檔名或以逗號分隔的檔名
+     */
+    public static ListingImages parse(String stored) {
+        if (stored == null || stored.isBlank()) {
+            return EMPTY;
+        }
+        String trimmed = stored.trim();
+        if (trimmed.startsWith("[")) {
+            try {
+                return of(MAPPER.readValue(trimmed, STRING_LIST));
+            } catch (JsonProcessingException e) {
+                // 非合法 JSON（例如舊版字串拼接的特殊字元），退回逗號切分
+                trimmed = trimmed.replace("[", "").replace("]", "").replace("\"", "");
+            }
+        }
+        return of(List.of(trimmed.split(",")));
+    }
+
+    /**
+     * 檔名轉為圖片 URL；已經是絕對路徑（舊資料）時原樣回傳
+     */
+    public static String toUrl(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        return fileName.startsWith("/") ? fileName : URL_PREFIX + fileName;
+    }
+
+    public String toJson() {
+        try {
+            return MAPPER.writeValueAsString(fileNames);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public List<String> fileNames() {
+        return fileNames;
+    }
+
+    public List<String> urls() {
+        return urls;
+    }
+
+    public String firstFileName() {
+        return fileNames.isEmpty() ? null : fileNames.get(0);
+    }
+
+    public String firstUrl() {
+        return urls.isEmpty() ? null : urls.get(0);
+    }
+
+    public boolean isEmpty() {
+        return fileNames.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ListingImages other && fileNames.equals(other.fileNames));
+    }
+
+    @Override
+    public int hashCode() {
+        return fileNames.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
@@ -0,0 +1,22 @@
+package com.exchange.platform.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * listings.image_paths（JSON 陣列字串）與 ListingImages 之間的轉換
+ * 空清單存成 null，維持欄位必填（NOT NULL）的檢查
+ */
+@Converter
+public class ListingImagesConverter implements AttributeConverter<ListingImages, String> {
+
+    @Override
+    public String convertToDatabaseColumn(ListingImages images) {
+        return images == null || images.isEmpty() ? null : images.toJson();
+    }
+
+    @Override
+    public ListingImages convertToEntityAttribute(String stored) {
+        return ListingImages.parse(stored);
+    }
+}
@@ -0,0 +1,38 @@
+package com.exchange.platform.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 刊登的不可變快照
+ * 由 ListingEntityListener 在載入 / 寫入時擷取，供記憶體索引使用，避免索引持有受管理的 Entity
+ */
+public record ListingSnapshot(
+        Long id,
+        Long userId,
+        String cardName,
+        String groupName,
+        String artistName,
+        String description,
+        Listing.CardSource cardSource,
+        Integer conditionRating,
+        Boolean hasProtection,
+        Listing.Status status,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static ListingSnapshot of(Listing l) {
+        return new ListingSnapshot(
+                l.getId(),
+                l.getUserId(),
+                l.getCardName(),
+                l.getGroupName(),
+                l.getArtistName(),
+                l.getDescription(),
+                l.getCardSource(),
+                l.getConditionRating(),
+                l.getHasProtection(),
+                l.getStatus(),
+                l.getCreatedAt(),
+                l.getUpdatedAt());
+    }
+}
@@ -0,0 +1,61 @@
+package com.exchange.platform.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * 刊登熱門度統計（每筆刊登一列，由 ListingTrendingTracker 批次寫入）
+ */
+@Entity
+@Table(name = "listing_stats", indexes = {
+        @Index(name = "idx_listing_stats_trending", columnList = "trending_score")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ListingStats implements Persistable<Long> {
+
+    // 與 listings.id 相同（共用主鍵）
+    @Id
+    @Column(name = "listing_id")
+    private Long listingId;
+
+    @Column(name = "view_count", nullable = false)
+    private Long viewCount;
+
+    @Column(name = "proposal_count", nullable = false)
+    private Long proposalCount;
+
+    // 前向衰減後的熱門分數（log2），與當下時間無關，可直接排序比較
+    @Column(name = "trending_score", nullable = false)
+    private Double trendingScore;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // 主鍵由呼叫端指定，需自行告知 Spring Data 是否為新資料，saveAll 才不會先 SELECT 再 merge
+    @Transient
+    @Builder.Default
+    private boolean newEntity = true;
+
+    @Override
+    public Long getId() {
+        return listingId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
@@ -0,0 +1,68 @@
+package com.exchange.platform.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 交易外寄件匣（transactional outbox）
+ * 業務交易只寫入此表，聊天室建立、系統訊息與電子郵件由 OutboxDispatcher 於交易提交後非同步投遞，失敗時退避重試；
+ * 投遞成功即刪除
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_next_attempt", columnList = "next_attempt_at,id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 32)
+    private Type type;
+
+    // 投遞參數（JSON，格式依 type，見 OutboxService）
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    // 已嘗試投遞次數（領取時遞增）
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    // 下次可投遞時間；null 表示已超過重試上限，不再投遞
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        this.createdAt = now;
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = now;
+        }
+    }
+
+    public enum Type {
+        // 建立提案聊天室（含歡迎系統訊息）
+        CREATE_CHAT_ROOM,
+        // 提案被接受：聊天室關聯 Swap（含系統訊息）
+        LINK_CHAT_ROOM_SWAP,
+        // 電子郵件通知
+        NOTIFICATION
+    }
+}
@@ -11,6 +11,7 @@ import java.util.List;
 @Table(name = "proposals", indexes = {
         @Index(name = "idx_proposals_listing", columnList = "listing_id"),
         @Index(name = "idx_proposals_proposer", columnList = "proposer_id"),
+        @Index(name = "idx_proposals_receiver", columnList = "receiver_id"),
         @Index(name = "idx_proposals_created", columnList = "created_at")
 })
 @Getter
@@ -72,5 +73,6 @@ public class Proposal {
         this.updatedAt = LocalDateTime.now();
     }
 
-    public enum Status { PENDING, ACCEPTED, REJECTED }
+    // SUPERSEDED：提案涉及的刊登已在其他交換中被鎖定，由系統自動失效
+    public enum Status { PENDING, ACCEPTED, REJECTED, SUPERSEDED }
 }
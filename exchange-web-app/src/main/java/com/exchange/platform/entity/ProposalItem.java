@@ -17,8 +17,10 @@ import java.time.LocalDateTime;
 @Builder
 public class ProposalItem {
 
+    // pooled 序列（MySQL 以 proposal_items_seq 資料表模擬）：同一提案的多筆明細 INSERT 才能走 JDBC 批次
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proposal_items_seq")
+    @SequenceGenerator(name = "proposal_items_seq", sequenceName = "proposal_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,41 @@
+package com.exchange.platform.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 使用者的關注搜尋（願望清單關鍵字）
+ * 有新刊登符合關鍵字時，由 SavedSearchPercolator 比對並排入 Email 通知
+ */
+@Entity
+@Table(name = "saved_searches", indexes = {
+        @Index(name = "idx_saved_searches_user", columnList = "user_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SavedSearch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // 使用者輸入的關鍵字（原樣保存，比對時再正規化）
+    @Column(name = "query_text", nullable = false, length = 100)
+    private String query;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
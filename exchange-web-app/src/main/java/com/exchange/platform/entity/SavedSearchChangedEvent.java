@@ -0,0 +1,7 @@
+package com.exchange.platform.entity;
+
+/**
+ * 使用者的關注搜尋有新增 / 刪除（或啟動時載入完成）
+ * 消費端應以使用者為單位重新計算，事件重複送達不影響結果
+ */
+public record SavedSearchChangedEvent(Long userId) {}
@@ -0,0 +1,53 @@
+package com.exchange.platform.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * 熱門搜尋關鍵字的次數快照（由 SearchQueryAnalytics 定期整批覆寫，只保存前幾名）
+ * 重新啟動時以此還原熱門關鍵字，預熱搜尋索引
+ */
+@Entity
+@Table(name = "search_query_counts")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchQueryCount implements Persistable<String> {
+
+    // 已正規化的關鍵字
+    @Id
+    @Column(name = "query_text", length = 100)
+    private String query;
+
+    @Column(name = "hits", nullable = false)
+    private Long hits;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // 主鍵由呼叫端指定，需自行告知 Spring Data 是否為新資料，saveAll 才不會先 SELECT 再 merge
+    @Transient
+    @Builder.Default
+    private boolean newEntity = true;
+
+    @Override
+    public String getId() {
+        return query;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
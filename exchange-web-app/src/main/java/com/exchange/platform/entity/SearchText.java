@@ -0,0 +1,33 @@
+package com.exchange.platform.entity;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * 搜尋用文字正規化：NFKC（全形英數轉半形、半形片假名轉全形、相容字元展開）後轉小寫
+ * 寫入時（索引、listings.search_text）與查詢時使用同一套規則，查詢端不需再對每列做 lower()
+ */
+public final class SearchText {
+
+    private SearchText() {}
+
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 多個欄位正規化後以換行串接（換行不會出現在關鍵字中，避免跨欄位誤判）
+     */
+    public static String of(String... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (String field : fields) {
+            if (field == null || field.isEmpty()) continue;
+            if (sb.length() > 0) sb.append('\n');
+            sb.append(normalize(field));
+        }
+        return sb.toString();
+    }
+}
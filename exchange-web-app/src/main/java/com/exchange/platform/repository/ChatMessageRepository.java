@@ -31,11 +31,19 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
                             @Param("userId") Long userId);
     
     /**
-     * 標記聊天室中某用戶的所有消息為已讀
+     * 計算用戶所有聊天室中的未讀消息數 (排除自己發送的消息)
+     */
+    @Query("SELECT COUNT(m) FROM ChatMessage m WHERE m.chatRoomId IN " +
+           "(SELECT r.id FROM ChatRoom r WHERE r.userAId = :userId OR r.userBId = :userId) " +
+           "AND m.senderId != :userId AND m.isRead = false")
+    long countUnreadMessagesForUser(@Param("userId") Long userId);
+    
+    /**
+     * 標記聊天室中某用戶的所有消息為已讀，回傳標記的筆數
      */
     @Modifying
     @Query("UPDATE ChatMessage m SET m.isRead = true " +
            "WHERE m.chatRoomId = :chatRoomId AND m.senderId != :userId AND m.isRead = false")
-    void markAllAsRead(@Param("chatRoomId") Long chatRoomId, 
+    int markAllAsRead(@Param("chatRoomId") Long chatRoomId, 
                       @Param("userId") Long userId);
 }
@@ -65,4 +65,14 @@ public interface EmailNotificationRepository extends JpaRepository<EmailNotifica
             @Param("entityId") Long entityId,
             Pageable pageable
     );
-}
\ No newline at end of file
+
+    /**
+     * 已對某實體發過指定類型通知的收件人（關注搜尋通知依 (使用者, 刊登) 去重）
+     */
+    @Query("SELECT DISTINCT n.recipientId FROM EmailNotification n WHERE n.notificationType = :type AND n.relatedEntityType = :entityType AND n.relatedEntityId = :entityId")
+    List<Long> findRecipientIdsByTypeAndEntity(
+            @Param("type") NotificationType type,
+            @Param("entityType") String entityType,
+            @Param("entityId") Long entityId
+    );
+}
@@ -0,0 +1,24 @@
+package com.exchange.platform.repository;
+
+import com.exchange.platform.entity.Listing;
+
+import java.time.LocalDateTime;
+
+/**
+ * 刊登列表卡片的投影
+ * 只選取卡片需要的欄位，不含 description / remarks / image_paths 等 TEXT 欄位，
+ * 也不會建立受管理的實體（沒有 dirty-checking 快照）
+ */
+public record ListingCardView(
+        Long id,
+        String cardName,
+        String groupName,
+        String artistName,
+        Listing.CardSource cardSource,
+        Integer conditionRating,
+        Boolean hasProtection,
+        String coverImage,
+        Long userId,
+        Listing.Status status,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {}
@@ -0,0 +1,20 @@
+package com.exchange.platform.repository;
+
+import com.exchange.platform.entity.ListingImageHash;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ListingImageHashRepository extends JpaRepository<ListingImageHash, Long> {
+
+    List<ListingImageHash> findByListingId(Long listingId);
+
+    @Modifying
+    @Query("DELETE FROM ListingImageHash h WHERE h.listingId = :listingId")
+    void deleteByListingId(@Param("listingId") Long listingId);
+}
@@ -5,8 +5,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ListingRepository extends JpaRepository<Listing, Long>, JpaSpecificationExecutor<Listing> {
+import java.util.Collection;
+import java.util.List;
+
+public interface ListingRepository extends JpaRepository<Listing, Long>, JpaSpecificationExecutor<Listing>, ListingRepositoryCustom {
 	// 搜尋卡片名稱、藝人名稱、團體名稱或描述
 	Page<Listing> findByCardNameContainingIgnoreCaseOrArtistNameContainingIgnoreCaseOrGroupNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(
 		String cardName, String artistName, String groupName, String description, Pageable pageable);
@@ -16,4 +21,10 @@ public interface ListingRepository extends JpaRepository<Listing, Long>, JpaSpec
 	
 	// 排除指定使用者的刊登
 	Page<Listing> findByUserIdNot(Long userId, Pageable pageable);
+
+	// 依 ID 批次查詢列表卡片投影（不含 TEXT 欄位；順序由呼叫端決定）
+	@Query("SELECT new com.exchange.platform.repository.ListingCardView(l.id, l.cardName, l.groupName, l.artistName, " +
+	       "l.cardSource, l.conditionRating, l.hasProtection, l.coverImage, l.userId, l.status, l.createdAt, l.updatedAt) " +
+	       "FROM Listing l WHERE l.id IN :ids")
+	List<ListingCardView> findCardsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,26 @@
+package com.exchange.platform.repository;
+
+import com.exchange.platform.entity.Listing;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+public interface ListingRepositoryCustom {
+	// 熱門排序的虛擬屬性：LEFT JOIN ListingStats 依 trendingScore 由高到低，沒有統計的刊登排在最後
+	String TRENDING_PROPERTY = "trendingScore";
+
+	// 以 Specification 條件分頁查詢刊登（排序可含 TRENDING_PROPERTY）
+	Page<Listing> findListings(Specification<Listing> spec, Pageable pageable);
+
+	// 以 Specification 條件分頁查詢列表卡片投影（排序可含 TRENDING_PROPERTY）
+	Page<ListingCardView> findCards(Specification<Listing> spec, Pageable pageable);
+
+	// 交易中若有尚未 flush 的刊登寫入則先 flush（讓記憶體索引與快取看到與 SQL 查詢相同的資料）
+	void flushPendingWrites();
+
+	// 條件式狀態轉換：只更新目前狀態為 from 的刊登（同一句 UPDATE，不先讀再寫），回傳實際更新筆數；
+	// 同步更新受管理的 Entity 並發佈 ListingChangedEvent
+	int transitionStatus(Collection<Long> ids, Listing.Status from, Listing.Status to);
+}
@@ -0,0 +1,187 @@
+package com.exchange.platform.repository;
+
+import com.exchange.platform.entity.Listing;
+import com.exchange.platform.entity.ListingChangedEvent;
+import com.exchange.platform.entity.ListingEntityListener;
+import com.exchange.platform.entity.ListingSnapshot;
+import com.exchange.platform.entity.ListingStats;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaEntityJoin;
+import org.hibernate.query.criteria.JpaRoot;
+import org.hibernate.query.sqm.tree.SqmJoinType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * ListingRepository 的自訂查詢：分頁查詢（含熱門排序）、列表卡片投影、條件式狀態轉換
+ *
+ * 熱門排序以 Criteria 明確 LEFT JOIN ListingStats ON s.listingId = l.id，
+ * 依 trendingScore DESC NULLS LAST 排序；Listing 本身不對應 listing_stats
+ */
+public class ListingRepositoryImpl implements ListingRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Override
+	public Page<Listing> findListings(Specification<Listing> spec, Pageable pageable) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+		CriteriaQuery<Listing> query = cb.createQuery(Listing.class);
+		Root<Listing> root = query.from(Listing.class);
+		query.select(root);
+		if (spec != null) {
+			query.where(spec.toPredicate(root, query, cb));
+		}
+		query.orderBy(toOrders(pageable.getSort(), root, cb));
+
+		List<Listing> content = entityManager.createQuery(query)
+				.setFirstResult((int) pageable.getOffset())
+				.setMaxResults(pageable.getPageSize())
+				.getResultList();
+
+		return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+	}
+
+	@Override
+	public Page<ListingCardView> findCards(Specification<Listing> spec, Pageable pageable) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+		CriteriaQuery<ListingCardView> query = cb.createQuery(ListingCardView.class);
+		Root<Listing> root = query.from(Listing.class);
+		query.select(cb.construct(ListingCardView.class,
+				root.get("id"),
+				root.get("cardName"),
+				root.get("groupName"),
+				root.get("artistName"),
+				root.get("cardSource"),
+				root.get("conditionRating"),
+				root.get("hasProtection"),
+				root.get("coverImage"),
+				root.get("userId"),
+				root.get("status"),
+				root.get("createdAt"),
+				root.get("updatedAt")));
+		if (spec != null) {
+			query.where(spec.toPredicate(root, query, cb));
+		}
+		query.orderBy(toOrders(pageable.getSort(), root, cb));
+
+		List<ListingCardView> content = entityManager.createQuery(query)
+				.setFirstResult((int) pageable.getOffset())
+				.setMaxResults(pageable.getPageSize())
+				.getResultList();
+
+		return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+	}
+
+	// TRENDING_PROPERTY 轉成 LEFT JOIN listing_stats 的 trendingScore（NULLS LAST）；其餘屬性照 Spring Data 規則
+	private List<Order> toOrders(Sort sort, Root<Listing> root, CriteriaBuilder cb) {
+		List<Order> orders = new ArrayList<>();
+		JpaEntityJoin<ListingStats> stats = null;
+		for (Sort.Order order : sort) {
+			if (!order.getProperty().equals(TRENDING_PROPERTY)) {
+				orders.addAll(QueryUtils.toOrders(Sort.by(order), root, cb));
+				continue;
+			}
+			if (stats == null) {
+				stats = ((JpaRoot<Listing>) root).join(ListingStats.class, SqmJoinType.LEFT);
+				stats.on(cb.equal(stats.get("listingId"), root.get("id")));
+			}
+			HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+			orders.add(order.isDescending()
+					? hcb.desc(stats.get("trendingScore"), false)
+					: hcb.asc(stats.get("trendingScore"), true));
+		}
+		return orders;
+	}
+
+	private long count(Specification<Listing> spec) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Long> query = cb.createQuery(Long.class);
+		Root<Listing> root = query.from(Listing.class);
+		query.select(cb.count(root));
+		if (spec != null) {
+			query.where(spec.toPredicate(root, query, cb));
+		}
+		return entityManager.createQuery(query).getSingleResult();
+	}
+
+	@Override
+	public void flushPendingWrites() {
+		// 序列產生 ID 時，save() 只排入 INSERT，要到 flush 才寫入並發出 ListingChangedEvent；
+		// 一般 SQL 查詢在 AUTO 模式會自動 flush，記憶體讀取路徑則需手動觸發。唯讀交易為 MANUAL，不受影響
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			return;
+		}
+		Session session = entityManager.unwrap(Session.class);
+		FlushMode mode = session.getHibernateFlushMode();
+		if (mode == FlushMode.AUTO || mode == FlushMode.ALWAYS) {
+			session.flush();
+		}
+	}
+
+	@Override
+	public int transitionStatus(Collection<Long> ids, Listing.Status from, Listing.Status to) {
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		// 批次 UPDATE 不經持久化內容：先送出待寫入的變更，並把這些刊登載入（已受管理的不再查詢）以記下異動前快照
+		Session session = entityManager.unwrap(Session.class);
+		session.flush();
+		List<Listing> listings = session.byMultipleIds(Listing.class).multiLoad(List.copyOf(ids));
+
+		// 狀態檢查與寫入在同一句 SQL：並行交易會在資料列鎖上排隊，後到者重新評估 WHERE 後更新 0 筆
+		int updated = entityManager.createQuery(
+						"UPDATE Listing l SET l.status = :to, l.statusRank = :rank, l.updatedAt = :now "
+								+ "WHERE l.id IN :ids AND l.status = :from")
+				.setParameter("to", to)
+				.setParameter("rank", to.getRank())
+				.setParameter("now", LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+				.setParameter("ids", ids)
+				.setParameter("from", from)
+				.executeUpdate();
+
+		// 重新讀取受影響的刊登（@PostLoad 更新快照），並補發 ListingEntityListener 收不到的異動事件；
+		// 呼叫端因筆數不符丟出例外時，交易回滾會連同這些事件一起反向還原
+		for (Listing listing : listings) {
+			if (listing == null || listing.getStatus() != from) {
+				continue;
+			}
+			ListingSnapshot before = listing.getPersistedState() != null
+					? listing.getPersistedState()
+					: ListingSnapshot.of(listing);
+			entityManager.refresh(listing);
+			if (!Objects.equals(before.status(), listing.getStatus())) {
+				ListingEntityListener.publish(eventPublisher,
+						new ListingChangedEvent(before, ListingSnapshot.of(listing)));
+			}
+		}
+		return updated;
+	}
+}
@@ -0,0 +1,9 @@
+package com.exchange.platform.repository;
+
+import com.exchange.platform.entity.ListingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ListingStatsRepository extends JpaRepository<ListingStats, Long> {
+}
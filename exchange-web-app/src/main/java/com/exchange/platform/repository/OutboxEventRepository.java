@@ -0,0 +1,35 @@
+package com.exchange.platform.repository;
+
+import com.exchange.platform.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // 到期待投遞的事件，依寫入順序
+    @Query("SELECT e FROM OutboxEvent e WHERE e.nextAttemptAt <= :now ORDER BY e.id")
+    List<OutboxEvent> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // 領取事件：attempts 未被其他投遞者變更才成功（多個節點共用此表時避免重複投遞），
+    // 同時把下次可投遞時間延到租約到期，投遞中途當機的事件會在租約到期後重試
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :leaseUntil "
+            + "WHERE e.id = :id AND e.attempts = :attempts AND e.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("attempts") int attempts, @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.nextAttemptAt = :nextAttemptAt, e.lastError = :error WHERE e.id = :id")
+    void markFailed(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                    @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id = :id")
+    void deleteDelivered(@Param("id") Long id);
+}
@@ -0,0 +1,9 @@
+package com.exchange.platform.repository;
+
+/**
+ * 提案與雙方的投影（批次失效通知、計數用，不建立受管理的實體）
+ */
+public record ProposalPartyView(
+        Long id,
+        Long proposerId,
+        Long receiverId) {}
@@ -4,17 +4,32 @@ import com.exchange.platform.entity.Proposal;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ProposalRepository extends JpaRepository<Proposal, Long> {
-	@Query("SELECT DISTINCT p FROM Proposal p LEFT JOIN FETCH p.proposalItems pi LEFT JOIN FETCH pi.listing WHERE p.proposerId = :proposerId")
-	Page<Proposal> findByProposerIdWithItems(@Param("proposerId") Long proposerId, Pageable pageable);
-	
-	@Query("SELECT DISTINCT p FROM Proposal p LEFT JOIN FETCH p.proposalItems pi LEFT JOIN FETCH pi.listing WHERE p.receiverId = :receiverId")
-	Page<Proposal> findByReceiverIdWithItems(@Param("receiverId") Long receiverId, Pageable pageable);
+	// 兩段式分頁：先在資料庫分頁取得 proposal ID（COUNT 不 JOIN 明細），再以 findAllWithItemsByIdIn 載入該頁明細；
+	// 集合 FETCH JOIN 直接搭配 Pageable 會讓 Hibernate 載入全部資料列後在記憶體分頁
+	@Query(value = "SELECT p.id FROM Proposal p WHERE p.proposerId = :proposerId",
+			countQuery = "SELECT COUNT(p) FROM Proposal p WHERE p.proposerId = :proposerId")
+	Page<Long> findIdsByProposerId(@Param("proposerId") Long proposerId, Pageable pageable);
+
+	@Query(value = "SELECT p.id FROM Proposal p WHERE p.receiverId = :receiverId",
+			countQuery = "SELECT COUNT(p) FROM Proposal p WHERE p.receiverId = :receiverId")
+	Page<Long> findIdsByReceiverId(@Param("receiverId") Long receiverId, Pageable pageable);
+
+	@Query(value = "SELECT p.id FROM Proposal p WHERE p.listingId = :listingId",
+			countQuery = "SELECT COUNT(p) FROM Proposal p WHERE p.listingId = :listingId")
+	Page<Long> findIdsByListingId(@Param("listingId") Long listingId, Pageable pageable);
+
+	@Query("SELECT DISTINCT p FROM Proposal p LEFT JOIN FETCH p.proposalItems pi LEFT JOIN FETCH pi.listing WHERE p.id IN :ids")
+	List<Proposal> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
 	
 	@Query("SELECT DISTINCT p FROM Proposal p LEFT JOIN FETCH p.proposalItems pi LEFT JOIN FETCH pi.listing WHERE p.id = :proposalId")
 	Optional<Proposal> findByIdWithItems(@Param("proposalId") Long proposalId);
@@ -23,4 +38,25 @@ public interface ProposalRepository extends JpaRepository<Proposal, Long> {
 	Page<Proposal> findByReceiverId(Long receiverId, Pageable pageable);
 	Page<Proposal> findByListingId(Long listingId, Pageable pageable);
 	Optional<Proposal> findByProposerIdAndListingIdAndStatus(Long proposerId, Long listingId, Proposal.Status status);
+	boolean existsByProposerIdAndListingIdAndStatus(Long proposerId, Long listingId, Proposal.Status status);
+	long countByReceiverIdAndStatus(Long receiverId, Proposal.Status status);
+
+	// 條件式狀態轉換：只有目前為 from 時才更新，回傳 0 代表已被其他請求處理；
+	// 更新後清除持久化內容，之後重新查詢才會讀到新狀態
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Proposal p SET p.status = :to, p.updatedAt = :now WHERE p.id = :id AND p.status = :from")
+	int transitionStatus(@Param("id") Long id, @Param("from") Proposal.Status from,
+			@Param("to") Proposal.Status to, @Param("now") LocalDateTime now);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Proposal p SET p.status = :to, p.updatedAt = :now WHERE p.id IN :ids AND p.status = :from")
+	int transitionStatuses(@Param("ids") Collection<Long> ids, @Param("from") Proposal.Status from,
+			@Param("to") Proposal.Status to, @Param("now") LocalDateTime now);
+
+	// 指定狀態、且想要的刊登或任一明細（proposal_items.listing_id）落在 listingIds 內的提案（排除 excludeId）
+	@Query("SELECT new com.exchange.platform.repository.ProposalPartyView(p.id, p.proposerId, p.receiverId) FROM Proposal p "
+			+ "WHERE p.status = :status AND p.id <> :excludeId AND (p.listingId IN :listingIds "
+			+ "OR p.id IN (SELECT pi.proposal.id FROM ProposalItem pi WHERE pi.listing.id IN :listingIds))")
+	List<ProposalPartyView> findPartiesReferencingListings(@Param("listingIds") Collection<Long> listingIds,
+			@Param("status") Proposal.Status status, @Param("excludeId") Long excludeId);
 }
@@ -0,0 +1,9 @@
+package com.exchange.platform.repository;
+
+import com.exchange.platform.entity.SearchQueryCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SearchQueryCountRepository extends JpaRepository<SearchQueryCount, String> {
+}
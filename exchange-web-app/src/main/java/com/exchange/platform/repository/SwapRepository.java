@@ -7,8 +7,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+
 public interface SwapRepository extends JpaRepository<Swap, Long> {
     // Explicit JPQL to avoid Spring Data property parsing issues with leading single-letter camel-case fields
     @Query("select s from Swap s where s.aUserId = :userA or s.bUserId = :userB")
     Page<Swap> findByAUserIdOrBUserId(@Param("userA") Long aUserId, @Param("userB") Long bUserId, Pageable pageable);
+
+    @Query("select count(s) from Swap s where (s.aUserId = :userId or s.bUserId = :userId) and s.status in :statuses")
+    long countByUserIdAndStatusIn(@Param("userId") Long userId, @Param("statuses") Collection<Swap.Status> statuses);
 }
@@ -25,6 +25,7 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final EmailNotificationService emailNotificationService;
+    private final UserDisplayNameResolver userDisplayNameResolver;
     private static final String SESSION_USER_ID = "userId";
 
     public AuthResponse register(RegisterRequest request) {
@@ -283,6 +284,7 @@ public class AuthService {
         }
 
         userRepository.save(user);
+        userDisplayNameResolver.evict(userId);
 
         return AuthResponse.builder()
                 .success(true)
@@ -46,6 +46,9 @@ public class ChatService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserCounterService userCounterService;
+    
     /**
      * 創建聊天室（當 Proposal 創建時自動調用）
      */
@@ -195,8 +198,8 @@ public class ChatService {
         
         ChatMessage saved = chatMessageRepository.save(message);
         
-        // 更新聊天室的最後消息時間
-        updateChatRoomLastMessageTime(chatRoomId);
+        // 更新聊天室的最後消息時間、對方的未讀計數
+        updateChatRoomLastMessageTime(chatRoomId, senderId);
         
         logger.info("Sent text message in chat room: {}, sender: {}", chatRoomId, senderId);
         return saved;
@@ -221,8 +224,8 @@ public class ChatService {
         
         ChatMessage saved = chatMessageRepository.save(message);
         
-        // 更新聊天室的最後消息時間
-        updateChatRoomLastMessageTime(chatRoomId);
+        // 更新聊天室的最後消息時間、對方的未讀計數
+        updateChatRoomLastMessageTime(chatRoomId, senderId);
         
         logger.info("Sent image message in chat room: {}, sender: {}", chatRoomId, senderId);
         return saved;
@@ -282,7 +285,8 @@ public class ChatService {
      */
     @Transactional
     public void markMessagesAsRead(Long chatRoomId, Long userId) {
-        chatMessageRepository.markAllAsRead(chatRoomId, userId);
+        int marked = chatMessageRepository.markAllAsRead(chatRoomId, userId);
+        userCounterService.adjust(userId, UserCounterService.Counter.UNREAD_MESSAGES, -marked);
         logger.info("Marked messages as read in chat room: {} for user: {}", chatRoomId, userId);
     }
     
@@ -297,11 +301,22 @@ public class ChatService {
      * 更新聊天室的最後消息時間
      */
     private void updateChatRoomLastMessageTime(Long chatRoomId) {
+        updateChatRoomLastMessageTime(chatRoomId, null);
+    }
+    
+    /**
+     * 更新聊天室的最後消息時間；senderId 不為 null 時（用戶消息）對方的未讀計數加一
+     */
+    private void updateChatRoomLastMessageTime(Long chatRoomId, Long senderId) {
         Optional<ChatRoom> chatRoom = chatRoomRepository.findById(chatRoomId);
         if (chatRoom.isPresent()) {
             ChatRoom room = chatRoom.get();
             room.setLastMessageAt(LocalDateTime.now());
             chatRoomRepository.save(room);
+            if (senderId != null) {
+                Long recipientId = senderId.equals(room.getUserAId()) ? room.getUserBId() : room.getUserAId();
+                userCounterService.adjust(recipientId, UserCounterService.Counter.UNREAD_MESSAGES, 1);
+            }
         }
     }
     
@@ -13,12 +13,18 @@ import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
 
 import jakarta.mail.internet.MimeMessage;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -46,47 +52,114 @@ public class EmailNotificationService {
                                         String relatedEntityType, Long relatedEntityId, 
                                         Object... contentParams) {
         try {
-            Optional<User> recipientOpt = userRepository.findById(recipientId);
-            if (recipientOpt.isEmpty() || recipientOpt.get().getEmail() == null) {
-                log.warn("無法發送通知：收件人 {} 不存在或沒有電子郵件", recipientId);
-                return;
+            createNotificationOrThrow(recipientId, type, relatedEntityType, relatedEntityId, contentParams)
+                    .ifPresent(this::sendEmailAsync);
+        } catch (Exception e) {
+            log.error("創建通知時發生錯誤：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 寫入通知（sent = false）但不寄信，錯誤直接拋出由呼叫端決定重試（OutboxDispatcher 使用）；
+     * 收件人不存在、沒有電子郵件或 5 分鐘內已有相同通知時回傳 empty。實際寄信由呼叫端在交易提交後觸發
+     */
+    @Transactional
+    public Optional<EmailNotification> createNotificationOrThrow(Long recipientId, NotificationType type,
+                                                                 String relatedEntityType, Long relatedEntityId,
+                                                                 Object... contentParams) {
+        Optional<User> recipientOpt = userRepository.findById(recipientId);
+        if (recipientOpt.isEmpty() || recipientOpt.get().getEmail() == null) {
+            log.warn("無法發送通知：收件人 {} 不存在或沒有電子郵件", recipientId);
+            return Optional.empty();
+        }
+
+        User recipient = recipientOpt.get();
+
+        // 檢查是否已經發送過相同通知（避免重複）
+        List<EmailNotification> recentNotifications = emailNotificationRepository
+                .findRecentNotificationsByTypeAndEntity(recipientId, type, relatedEntityId, 
+                        PageRequest.of(0, 1));
+        
+        if (!recentNotifications.isEmpty()) {
+            EmailNotification recent = recentNotifications.get(0);
+            // 如果5分鐘內已發送相同通知，則跳過
+            if (recent.getCreatedAt().isAfter(LocalDateTime.now().minusMinutes(5))) {
+                log.info("跳過重複通知：{} for 用戶 {} 實體 {}", type, recipientId, relatedEntityId);
+                return Optional.empty();
             }
+        }
 
-            User recipient = recipientOpt.get();
+        String subject = generateSubject(type, contentParams);
+        String content = generateContent(type, relatedEntityType, relatedEntityId, contentParams);
+
+        EmailNotification notification = EmailNotification.builder()
+                .recipientId(recipientId)
+                .email(recipient.getEmail())
+                .notificationType(type)
+                .subject(subject)
+                .content(content)
+                .relatedEntityType(relatedEntityType)
+                .relatedEntityId(relatedEntityId)
+                .sent(false)
+                .build();
+
+        return Optional.of(emailNotificationRepository.save(notification));
+    }
 
-            // 檢查是否已經發送過相同通知（避免重複）
-            List<EmailNotification> recentNotifications = emailNotificationRepository
-                    .findRecentNotificationsByTypeAndEntity(recipientId, type, relatedEntityId, 
-                            PageRequest.of(0, 1));
-            
-            if (!recentNotifications.isEmpty()) {
-                EmailNotification recent = recentNotifications.get(0);
-                // 如果5分鐘內已發送相同通知，則跳過
-                if (recent.getCreatedAt().isAfter(LocalDateTime.now().minusMinutes(5))) {
-                    log.info("跳過重複通知：{} for 用戶 {} 實體 {}", type, recipientId, relatedEntityId);
-                    return;
-                }
+    /**
+     * 關注搜尋比對結果排入通知：收件人一次 findAllById 載入，通知以 saveAll 寫入（sent = false）
+     * 與刊登在同一交易內寫入，實際寄信由呼叫端在交易提交後以 sendQueuedAsync 觸發
+     */
+    @Transactional
+    public List<EmailNotification> queueSavedSearchAlerts(List<SavedSearchPercolator.Match> matches) {
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> recipientIds = matches.stream()
+                .map(SavedSearchPercolator.Match::userId)
+                .collect(Collectors.toSet());
+        Map<Long, String> emails = new HashMap<>();
+        for (User user : userRepository.findAllById(recipientIds)) {
+            if (user.getEmail() != null) {
+                emails.put(user.getId(), user.getEmail());
             }
+        }
 
-            String subject = generateSubject(type, contentParams);
-            String content = generateContent(type, relatedEntityType, relatedEntityId, contentParams);
-
-            EmailNotification notification = EmailNotification.builder()
-                    .recipientId(recipientId)
-                    .email(recipient.getEmail())
-                    .notificationType(type)
-                    .subject(subject)
-                    .content(content)
-                    .relatedEntityType(relatedEntityType)
-                    .relatedEntityId(relatedEntityId)
+        List<EmailNotification> notifications = new ArrayList<>(matches.size());
+        for (SavedSearchPercolator.Match match : matches) {
+            String email = emails.get(match.userId());
+            if (email == null) continue;
+            notifications.add(EmailNotification.builder()
+                    .recipientId(match.userId())
+                    .email(email)
+                    .notificationType(NotificationType.SAVED_SEARCH_MATCH)
+                    .subject(generateSubject(NotificationType.SAVED_SEARCH_MATCH))
+                    .content(generateContent(NotificationType.SAVED_SEARCH_MATCH, "Listing", match.listingId(),
+                            match.query(), match.cardName()))
+                    .relatedEntityType("Listing")
+                    .relatedEntityId(match.listingId())
                     .sent(false)
-                    .build();
+                    .build());
+        }
+        return emailNotificationRepository.saveAll(notifications);
+    }
 
-            emailNotificationRepository.save(notification);
-            sendEmailAsync(notification);
+    /**
+     * 已收過此刊登關注搜尋通知的使用者（同一 (使用者, 刊登) 只通知一次）
+     */
+    @Transactional(readOnly = true)
+    public List<Long> savedSearchAlertRecipients(Long listingId) {
+        return emailNotificationRepository.findRecipientIdsByTypeAndEntity(
+                NotificationType.SAVED_SEARCH_MATCH, "Listing", listingId);
+    }
 
-        } catch (Exception e) {
-            log.error("創建通知時發生錯誤：{}", e.getMessage(), e);
+    /**
+     * 異步發送一批已排入的通知（交易提交後呼叫，不佔用請求執行緒）
+     */
+    @Async
+    public void sendQueuedAsync(List<EmailNotification> notifications) {
+        for (EmailNotification notification : notifications) {
+            sendEmailAsync(notification);
         }
     }
 
@@ -146,6 +219,8 @@ public class EmailNotificationService {
                 return "【卡片交換平台】您的提案已被接受！";
             case PROPOSAL_REJECTED:
                 return "【卡片交換平台】提案狀態更新";
+            case PROPOSAL_SUPERSEDED:
+                return "【卡片交換平台】提案已失效";
             case SWAP_CONFIRMED:
                 return "【卡片交換平台】交換確認成功！";
             case DELIVERY_METHOD_PROPOSED:
@@ -158,6 +233,8 @@ public class EmailNotificationService {
                 return "【卡片交換平台】包裹已送達";
             case EXCHANGE_COMPLETED:
                 return "【卡片交換平台】交換已完成！";
+            case SAVED_SEARCH_MATCH:
+                return "【卡片交換平台】您關注的卡片上架了！";
             default:
                 return "【卡片交換平台】通知";
         }
@@ -182,12 +259,14 @@ public class EmailNotificationService {
             case PROPOSAL_RECEIVED: return "📨";
             case PROPOSAL_ACCEPTED: return "✅";
             case PROPOSAL_REJECTED: return "❌";
+            case PROPOSAL_SUPERSEDED: return "⌛";
             case SWAP_CONFIRMED: return "🔄";
             case DELIVERY_METHOD_PROPOSED: return "📋";
             case DELIVERY_METHOD_ACCEPTED: return "✅";
             case SHIPMENT_SENT: return "📦";
             case SHIPMENT_RECEIVED: return "📬";
             case EXCHANGE_COMPLETED: return "🎉";
+            case SAVED_SEARCH_MATCH: return "🔔";
             default: return "📢";
         }
     }
@@ -200,12 +279,14 @@ public class EmailNotificationService {
             case PROPOSAL_RECEIVED: return "您收到了一個新的交換提案！";
             case PROPOSAL_ACCEPTED: return "恭喜！您的提案已被接受！";
             case PROPOSAL_REJECTED: return "提案狀態更新";
+            case PROPOSAL_SUPERSEDED: return "提案已失效";
             case SWAP_CONFIRMED: return "交換確認成功！";
             case DELIVERY_METHOD_PROPOSED: return "運送方式提案";
             case DELIVERY_METHOD_ACCEPTED: return "運送方式已確認！";
             case SHIPMENT_SENT: return "包裹已寄出！";
             case SHIPMENT_RECEIVED: return "包裹已送達！";
             case EXCHANGE_COMPLETED: return "交換完成！";
+            case SAVED_SEARCH_MATCH: return "您關注的卡片上架了！";
             default: return "平台通知";
         }
     }
@@ -235,6 +316,12 @@ public class EmailNotificationService {
                 msg.append("<p>別灰心！您可以重新選擇其他卡片提出新的提案。</p>");
                 break;
 
+            case PROPOSAL_SUPERSEDED:
+                msg.append("<p>提案中的卡片已在其他交換中被鎖定，您的交換提案已自動失效。</p>");
+                msg.append("<p><strong>提案編號：</strong>#").append(entityId).append("</p>");
+                msg.append("<p>您可以瀏覽其他卡片，重新提出提案。</p>");
+                break;
+
             case SWAP_CONFIRMED:
                 msg.append("<p>交換已確認成功！</p>");
                 msg.append("<p><strong>交換編號：</strong>#").append(entityId).append("</p>");
@@ -274,6 +361,15 @@ public class EmailNotificationService {
                 msg.append("<p>歡迎為本次交換留下評價，幫助其他用戶更了解交換夥伴。</p>");
                 break;
 
+            case SAVED_SEARCH_MATCH:
+                msg.append("<p>有新的刊登符合您的關注搜尋「")
+                        .append(HtmlUtils.htmlEscape(String.valueOf(params[0]))).append("」！</p>");
+                msg.append("<p><strong>卡片名稱：</strong>")
+                        .append(HtmlUtils.htmlEscape(String.valueOf(params[1]))).append("</p>");
+                msg.append("<p><strong>刊登編號：</strong>#").append(entityId).append("</p>");
+                msg.append("<p>好卡不等人，快登入平台提出交換吧！</p>");
+                break;
+
             default:
                 msg.append("<p>您有新的平台通知，請登入查看詳情。</p>");
                 if (entityId != null) {
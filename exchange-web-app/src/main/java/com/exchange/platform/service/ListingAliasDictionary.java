@@ -0,0 +1,166 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.entity.SearchText;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 團體 / 藝人別名字典（classpath:search-aliases.txt），啟動時載入記憶體
+ *
+ * 關鍵字中出現字典裡的名稱時，展開成同組其他名稱的變體（例如「bts 小卡」→「防彈少年團 小卡」…），
+ * 各變體分別搜尋後取聯集，使用者不必用不同語言重複搜尋。
+ */
+@Component
+@Slf4j
+public class ListingAliasDictionary {
+
+    private static final String RESOURCE = "search-aliases.txt";
+    // 一個關鍵字最多展開的變體數（含原關鍵字）
+    static final int MAX_VARIANTS = 16;
+
+    // 正規化後的名稱 -> 同組所有名稱（含自己）
+    private final Map<String, List<String>> groups = new HashMap<>();
+    // 所有名稱，長的在前（優先比對較長的名稱，例如 "bangtan boys" 先於 "bangtan"）
+    private final List<String> names = new ArrayList<>();
+
+    @PostConstruct
+    public void load() {
+        ClassPathResource resource = new ClassPathResource(RESOURCE);
+        if (!resource.exists()) {
+            log.warn("Alias dictionary {} not found, query expansion disabled", RESOURCE);
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                addGroup(line.split(","));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load alias dictionary " + RESOURCE, e);
+        }
+        names.addAll(groups.keySet());
+        names.sort(Comparator.comparingInt(String::length).reversed().thenComparing(Comparator.naturalOrder()));
+        log.info("Alias dictionary loaded: {} names", names.size());
+    }
+
+    private void addGroup(String[] entries) {
+        Set<String> group = new LinkedHashSet<>();
+        for (String entry : entries) {
+            String name = SearchText.normalize(entry.strip());
+            if (!name.isEmpty()) {
+                group.add(name);
+            }
+        }
+        if (group.size() < 2) {
+            return;
+        }
+        List<String> members = List.copyOf(group);
+        for (String name : members) {
+            groups.merge(name, members, (a, b) -> {
+                Set<String> merged = new LinkedHashSet<>(a);
+                merged.addAll(b);
+                return List.copyOf(merged);
+            });
+        }
+    }
+
+    /**
+     * 展開已正規化的關鍵字；第一個元素一定是原關鍵字，沒有別名時只回傳原關鍵字
+     */
+    public List<String> expand(String phrase) {
+        List<String> variants = new ArrayList<>();
+        variants.add(phrase);
+        if (phrase == null || phrase.isEmpty() || groups.isEmpty()) {
+            return variants;
+        }
+
+        // 找出關鍵字中出現的名稱（不重疊，長的優先），記錄每個出現位置 [start, end)
+        boolean[] taken = new boolean[phrase.length()];
+        List<String> found = new ArrayList<>();
+        List<int[]> spans = new ArrayList<>();
+        for (String name : names) {
+            int from = 0;
+            int at;
+            while ((at = phrase.indexOf(name, from)) >= 0) {
+                int end = at + name.length();
+                if (isBoundary(phrase, at, end) && isFree(taken, at, end)) {
+                    for (int i = at; i < end; i++) taken[i] = true;
+                    if (!found.contains(name)) found.add(name);
+                    spans.add(new int[] {at, end});
+                }
+                from = at + 1;
+            }
+        }
+        if (found.isEmpty()) {
+            return variants;
+        }
+        spans.sort(Comparator.comparingInt(span -> span[0]));
+
+        // 每個變體是「名稱 -> 替換成的別名」；只替換找到的位置，其他地方出現的相同字串（例如單字的一部分）不動
+        List<Map<String, String>> choices = new ArrayList<>();
+        choices.add(Map.of());
+        for (String name : found) {
+            List<Map<String, String>> next = new ArrayList<>(choices);
+            for (Map<String, String> choice : choices) {
+                for (String alias : groups.get(name)) {
+                    if (next.size() >= MAX_VARIANTS) break;
+                    Map<String, String> extended = new HashMap<>(choice);
+                    extended.put(name, alias);
+                    String replaced = substitute(phrase, spans, extended);
+                    if (!variants.contains(replaced)) {
+                        variants.add(replaced);
+                        next.add(extended);
+                    }
+                }
+            }
+            choices = next;
+        }
+        return variants;
+    }
+
+    // 依出現位置組出變體：choice 中有的名稱換成對應別名，其餘保留原字
+    private static String substitute(String phrase, List<int[]> spans, Map<String, String> choice) {
+        StringBuilder out = new StringBuilder(phrase.length());
+        int last = 0;
+        for (int[] span : spans) {
+            String name = phrase.substring(span[0], span[1]);
+            out.append(phrase, last, span[0]).append(choice.getOrDefault(name, name));
+            last = span[1];
+        }
+        return out.append(phrase, last, phrase.length()).toString();
+    }
+
+    private static boolean isFree(boolean[] taken, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (taken[i]) return false;
+        }
+        return true;
+    }
+
+    // 英數名稱需以完整單字出現；中日韓文字不限
+    private static boolean isBoundary(String phrase, int start, int end) {
+        return !(start > 0 && isWordChar(phrase.charAt(start - 1)) && isWordChar(phrase.charAt(start)))
+                && !(end < phrase.length() && isWordChar(phrase.charAt(end)) && isWordChar(phrase.charAt(end - 1)));
+    }
+
+    private static boolean isWordChar(char c) {
+        return c < 0x3000 && Character.isLetterOrDigit(c);
+    }
+}
@@ -0,0 +1,49 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.entity.Listing;
+import com.exchange.platform.entity.ListingCatalogLoadedEvent;
+import com.exchange.platform.entity.ListingChangedEvent;
+import com.exchange.platform.entity.ListingSnapshot;
+import com.exchange.platform.repository.ListingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * 啟動時載入所有刊登，逐筆以 ListingChangedEvent(null, snapshot) 發佈給記憶體索引
+ * 所有記憶體結構（搜尋索引、篩選計數…）共用這一次掃描，不各自重掃資料表
+ * 消費端須以 listing ID 為單位冪等，啟動期間與一般異動事件交錯也不會重複計算
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ListingCatalogLoader {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ListingRepository listingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        long count = 0;
+        int pageIndex = 0;
+        Page<Listing> page;
+        do {
+            page = listingRepository.findAll(PageRequest.of(pageIndex++, BATCH_SIZE, Sort.by("id")));
+            for (Listing listing : page.getContent()) {
+                eventPublisher.publishEvent(new ListingChangedEvent(null, ListingSnapshot.of(listing)));
+                count++;
+            }
+        } while (page.hasNext());
+        eventPublisher.publishEvent(new ListingCatalogLoadedEvent(count));
+        log.info("Listing catalog loaded: {} listings in {} ms", count, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,43 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.entity.ListingChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 刊登目錄版本號
+ * 任何刊登新增、修改（含狀態變更）、刪除都會遞增；快取以此判斷結果是否過期
+ *
+ * 異動事件在 flush 當下發佈，此時交易尚未 commit，其他交易可能還讀到舊資料並以新版本號寫入快取，
+ * 因此交易結束後再遞增一次，讓這段期間寫入的快取一律失效。
+ */
+@Component
+public class ListingCatalogVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    @EventListener
+    public void onListingChanged(ListingChangedEvent event) {
+        bump();
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.dto.ListingFacetsDTO;
+import com.exchange.platform.entity.Listing;
+import com.exchange.platform.entity.ListingChangedEvent;
+import com.exchange.platform.entity.ListingSnapshot;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 刊登篩選欄位計數（groupName / artistName / cardSource / conditionRating / hasProtection / status）
+ *
+ * 由 ListingChangedEvent 增量維護：每筆刊登記住上次計入的欄位值，
+ * 異動時先扣除舊值再加上新值，因此同一事件重複送達也不會重複計算。
+ * 讀取篩選選單時不需要對資料表做 GROUP BY。
+ */
+@Component
+public class ListingFacetCounter {
+
+    private final Map<Long, FacetValues> counted = new HashMap<>();
+
+    private final Counter<String> groupNames = new Counter<>(FacetValues::groupName, v -> v, v -> v);
+    private final Counter<String> artistNames = new Counter<>(FacetValues::artistName, v -> v, v -> v);
+    private final Counter<Listing.CardSource> cardSources =
+            new Counter<>(FacetValues::cardSource, Enum::name, Listing.CardSource::getDisplayName);
+    private final Counter<Integer> conditionRatings =
+            new Counter<>(FacetValues::conditionRating, String::valueOf, String::valueOf);
+    private final Counter<Boolean> hasProtection =
+            new Counter<>(FacetValues::hasProtection, String::valueOf, v -> v ? "有保護" : "無保護");
+    private final Counter<Listing.Status> statuses =
+            new Counter<>(FacetValues::status, Enum::name, Listing.Status::getDisplayName);
+
+    @EventListener
+    public synchronized void onListingChanged(ListingChangedEvent event) {
+        Long id = event.listingId();
+        if (id == null) {
+            return;
+        }
+        FacetValues old = counted.remove(id);
+        if (old != null) {
+            forEachCounter(c -> c.add(old, -1));
+        }
+        if (event.after() != null) {
+            FacetValues now = FacetValues.of(event.after());
+            counted.put(id, now);
+            forEachCounter(c -> c.add(now, 1));
+        }
+    }
+
+    /**
+     * 取得目前各篩選欄位的值與筆數
+     *
+     * @param limit 文字欄位（團體、藝人）最多回傳幾個值；enum 類欄位全部回傳
+     */
+    public synchronized ListingFacetsDTO snapshot(int limit) {
+        return ListingFacetsDTO.builder()
+                .groupNames(groupNames.top(limit))
+                .artistNames(artistNames.top(limit))
+                .cardSources(cardSources.top(Integer.MAX_VALUE))
+                .conditionRatings(conditionRatings.top(Integer.MAX_VALUE))
+                .hasProtection(hasProtection.top(Integer.MAX_VALUE))
+                .statuses(statuses.top(Integer.MAX_VALUE))
+                .build();
+    }
+
+    private void forEachCounter(java.util.function.Consumer<Counter<?>> action) {
+        action.accept(groupNames);
+        action.accept(artistNames);
+        action.accept(cardSources);
+        action.accept(conditionRatings);
+        action.accept(hasProtection);
+        action.accept(statuses);
+    }
+
+    private record FacetValues(String groupName, String artistName, Listing.CardSource cardSource,
+                               Integer conditionRating, Boolean hasProtection, Listing.Status status) {
+
+        static FacetValues of(ListingSnapshot s) {
+            return new FacetValues(blankToNull(s.groupName()), blankToNull(s.artistName()), s.cardSource(),
+                    s.conditionRating(), s.hasProtection(), s.status());
+        }
+
+        private static String blankToNull(String s) {
+            return s == null || s.isBlank() ? null : s;
+        }
+    }
+
+    private static final class Counter<T> {
+        private final Function<FacetValues, T> extractor;
+        private final Function<T, String> value;
+        private final Function<T, String> label;
+        private final Map<T, Long> counts = new HashMap<>();
+
+        Counter(Function<FacetValues, T> extractor, Function<T, String> value, Function<T, String> label) {
+            this.extractor = extractor;
+            this.value = value;
+            this.label = label;
+        }
+
+        void add(FacetValues values, long delta) {
+            T key = extractor.apply(values);
+            if (key == null) {
+                return;
+            }
+            counts.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+
+        List<ListingFacetsDTO.FacetCount> top(int limit) {
+            return counts.entrySet().stream()
+                    .sorted(Map.Entry.<T, Long>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(e -> value.apply(e.getKey())))
+                    .limit(limit)
+                    .map(e -> ListingFacetsDTO.FacetCount.builder()
+                            .value(value.apply(e.getKey()))
+                            .label(label.apply(e.getKey()))
+                            .count(e.getValue())
+                            .build())
+                    .toList();
+        }
+    }
+}
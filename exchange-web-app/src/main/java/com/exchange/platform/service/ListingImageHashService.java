@@ -0,0 +1,366 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.entity.ListingImageHash;
+import com.exchange.platform.repository.ListingImageHashRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * 刊登圖片近似比對（疑似盜用他人圖片）
+ *
+ * 上傳時在背景執行緒計算 dHash（縮成 9x8 灰階、比較左右相鄰像素，共 64 位元），不佔用請求執行緒；
+ * 建立刊登時取出這些雜湊，以 BK-tree 找出漢明距離在 MAX_DISTANCE 內的已刊登圖片，
+ * 查詢只走訪距離可能落在範圍內的子樹，不需與每張圖片逐一比較。
+ *
+ * 雜湊與刊登同交易寫入 listing_image_hashes，啟動時載入 BK-tree；
+ * 記憶體索引在寫入時立即更新，交易未提交時還原（與刊登搜尋索引的處理方式一致）。
+ */
+@Component
+@Slf4j
+public class ListingImageHashService {
+
+    // 視為同一張圖片的最大漢明距離（64 位元中）
+    public static final int MAX_DISTANCE = 8;
+    // 幾乎全為 0 或全為 1 的雜湊（純色、漸層圖片）無鑑別度，不參與比對
+    private static final int MIN_INFORMATIVE_BITS = 4;
+    // 建立刊登時最多等待背景計算的時間
+    private static final long HASH_WAIT_MS = 2000;
+    // 上傳後未建立刊登的雜湊保留時間
+    private static final long PENDING_TTL_MS = 60 * 60 * 1000;
+    private static final int BATCH_SIZE = 1000;
+
+    private final ListingImageHashRepository listingImageHashRepository;
+
+    // 已上傳、尚未用於刊登的圖片：檔名 -> 上傳者與計算中的雜湊
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    // 已刊登圖片的雜湊（以下兩者由 this 保護）
+    private final BkTree tree = new BkTree();
+    private final Map<Long, List<ListingImageHash>> byListing = new HashMap<>();
+
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2, r -> {
+        Thread thread = new Thread(r, "listing-image-hash");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ListingImageHashService(ListingImageHashRepository listingImageHashRepository) {
+        this.listingImageHashRepository = listingImageHashRepository;
+        executor.scheduleWithFixedDelay(this::purgeExpired, PENDING_TTL_MS, PENDING_TTL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        int pageIndex = 0;
+        int count = 0;
+        Page<ListingImageHash> page;
+        do {
+            page = listingImageHashRepository.findAll(PageRequest.of(pageIndex++, BATCH_SIZE, Sort.by("id")));
+            synchronized (this) {
+                for (ListingImageHash row : page.getContent()) {
+                    index(row);
+                    count++;
+                }
+            }
+        } while (page.hasNext());
+        log.info("Listing image hashes loaded: {} images", count);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 上傳完成後呼叫：在背景計算雜湊，立即返回
+     */
+    public void submit(String fileName, Path file, Long userId) {
+        CompletableFuture<Long> hash = CompletableFuture.supplyAsync(() -> hashFile(file), executor);
+        pending.put(fileName, new Pending(userId, System.currentTimeMillis(), hash));
+    }
+
+    /**
+     * 依 fileNameGroups 順序取出此使用者上傳的圖片雜湊（等待尚未算完的）；
+     * 非此使用者上傳、已過期、無法解碼或無鑑別度的圖片略過。
+     * 所有圖片共用一個等待期限，批次建立時總等待時間不會隨筆數增加。
+     * 取出的項目在交易回滾時放回（與 BK-tree 寫入的還原方式相同），重試建立時仍可比對
+     */
+    public List<List<ImageHash>> takeAll(List<List<String>> fileNameGroups, Long userId) {
+        List<List<ImageHash>> result = new ArrayList<>(fileNameGroups.size());
+        Map<String, Pending> taken = new LinkedHashMap<>();
+        onRollback(() -> taken.forEach(pending::putIfAbsent));
+        long deadline = System.currentTimeMillis() + HASH_WAIT_MS;
+        boolean interrupted = false;
+        for (List<String> fileNames : fileNameGroups) {
+            List<ImageHash> hashes = new ArrayList<>();
+            result.add(hashes);
+            if (fileNames == null || interrupted) {
+                continue;
+            }
+            for (String fileName : fileNames) {
+                Pending p = fileName != null ? pending.get(fileName) : null;
+                if (p == null || !p.userId().equals(userId) || !pending.remove(fileName, p)) {
+                    continue;
+                }
+                taken.put(fileName, p);
+                try {
+                    Long hash = p.hash().get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+                    if (hash != null && isInformative(hash)) {
+                        hashes.add(new ImageHash(fileName, hash));
+                    }
+                } catch (TimeoutException | ExecutionException e) {
+                    log.warn("Image hash unavailable for {}: {}", fileName, e.toString());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    interrupted = true;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 圖片與這些雜湊近似的 listing IDs（含自己的刊登，由呼叫端判斷誰是原圖）
+     */
+    public synchronized Set<Long> nearDuplicates(List<ImageHash> hashes) {
+        Set<Long> listingIds = new LinkedHashSet<>();
+        for (ImageHash h : hashes) {
+            tree.search(h.hash(), MAX_DISTANCE, row -> listingIds.add(row.getListingId()));
+        }
+        return listingIds;
+    }
+
+    /**
+     * 與刊登同交易寫入雜湊
+     */
+    public void store(Long listingId, Long userId, List<ImageHash> hashes) {
+        if (hashes.isEmpty()) {
+            return;
+        }
+        List<ListingImageHash> rows = new ArrayList<>(hashes.size());
+        for (ImageHash h : hashes) {
+            rows.add(ListingImageHash.builder()
+                    .listingId(listingId)
+                    .userId(userId)
+                    .fileName(h.fileName())
+                    .hash(h.hash())
+                    .build());
+        }
+        rows = listingImageHashRepository.saveAll(rows);
+        List<ListingImageHash> stored = rows;
+        synchronized (this) {
+            stored.forEach(this::index);
+        }
+        onRollback(() -> {
+            synchronized (this) {
+                stored.forEach(this::unindex);
+            }
+        });
+    }
+
+    /**
+     * 刊登刪除時與刊登同交易刪除其雜湊
+     */
+    public void remove(Long listingId) {
+        listingImageHashRepository.deleteByListingId(listingId);
+        List<ListingImageHash> removed;
+        synchronized (this) {
+            removed = byListing.containsKey(listingId) ? List.copyOf(byListing.get(listingId)) : List.of();
+            removed.forEach(this::unindex);
+        }
+        onRollback(() -> {
+            synchronized (this) {
+                removed.forEach(this::index);
+            }
+        });
+    }
+
+    // 呼叫端需持有鎖
+    private void index(ListingImageHash row) {
+        tree.add(row);
+        byListing.computeIfAbsent(row.getListingId(), k -> new ArrayList<>()).add(row);
+    }
+
+    // 呼叫端需持有鎖
+    private void unindex(ListingImageHash row) {
+        tree.remove(row);
+        List<ListingImageHash> rows = byListing.get(row.getListingId());
+        if (rows != null) {
+            rows.remove(row);
+            if (rows.isEmpty()) {
+                byListing.remove(row.getListingId());
+            }
+        }
+    }
+
+    private void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - PENDING_TTL_MS;
+        pending.values().removeIf(p -> p.createdAt() < cutoff);
+    }
+
+    private static Long hashFile(Path file) {
+        try {
+            BufferedImage image = ImageIO.read(file.toFile());
+            return image != null ? dHash(image) : null;
+        } catch (IOException e) {
+            log.warn("Failed to read image {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * dHash：以區域平均縮成 9x8 灰階，每列比較左右相鄰像素（左 > 右為 1）
+     */
+    static long dHash(BufferedImage image) {
+        Image scaled = image.getScaledInstance(9, 8, Image.SCALE_AREA_AVERAGING);
+        BufferedImage gray = new BufferedImage(9, 8, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = gray.createGraphics();
+        try {
+            g.drawImage(scaled, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        long hash = 0;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                int left = gray.getRaster().getSample(x, y, 0);
+                int right = gray.getRaster().getSample(x + 1, y, 0);
+                hash = (hash << 1) | (left > right ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    static boolean isInformative(long hash) {
+        int bits = Long.bitCount(hash);
+        return bits >= MIN_INFORMATIVE_BITS && bits <= 64 - MIN_INFORMATIVE_BITS;
+    }
+
+    static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    public record ImageHash(String fileName, long hash) {}
+
+    private record Pending(Long userId, long createdAt, CompletableFuture<Long> hash) {}
+
+    /**
+     * 以漢明距離建立的 BK-tree：子節點依與父節點的距離分組，
+     * 依三角不等式，查詢半徑 r 時只需走訪距離在 [d - r, d + r] 的子樹
+     */
+    private static final class BkTree {
+
+        private Node root;
+
+        void add(ListingImageHash row) {
+            long hash = row.getHash();
+            if (root == null) {
+                root = new Node(hash);
+            }
+            Node node = root;
+            while (true) {
+                int d = distance(hash, node.hash);
+                if (d == 0) {
+                    node.rows.add(row);
+                    return;
+                }
+                Node child = node.children.get(d);
+                if (child == null) {
+                    child = new Node(hash);
+                    node.children.put(d, child);
+                }
+                node = child;
+            }
+        }
+
+        // 節點保留（子樹仍需經過它），只移除資料列
+        void remove(ListingImageHash row) {
+            long hash = row.getHash();
+            Node node = root;
+            while (node != null) {
+                int d = distance(hash, node.hash);
+                if (d == 0) {
+                    node.rows.remove(row);
+                    return;
+                }
+                node = node.children.get(d);
+            }
+        }
+
+        void search(long hash, int radius, Consumer<ListingImageHash> consumer) {
+            if (root == null) {
+                return;
+            }
+            List<Node> stack = new ArrayList<>();
+            stack.add(root);
+            while (!stack.isEmpty()) {
+                Node node = stack.remove(stack.size() - 1);
+                int d = distance(hash, node.hash);
+                if (d <= radius) {
+                    for (ListingImageHash row : node.rows) {
+                        consumer.accept(row);
+                    }
+                }
+                for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                    if (Math.abs(child.getKey() - d) <= radius) {
+                        stack.add(child.getValue());
+                    }
+                }
+            }
+        }
+
+        private static final class Node {
+            final long hash;
+            final List<ListingImageHash> rows = new ArrayList<>(1);
+            final Map<Integer, Node> children = new HashMap<>();
+
+            Node(long hash) {
+                this.hash = hash;
+            }
+        }
+    }
+}
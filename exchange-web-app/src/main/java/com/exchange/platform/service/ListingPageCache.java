@@ -0,0 +1,96 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.dto.ListingFacetFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 刊登瀏覽結果快取
+ *
+ * 以 (查詢種類, q, sort, page, size, excludeOwnerId, 篩選條件) 為 key，
+ * 每筆結果記錄計算前的目錄版本號；版本號變動（任何刊登寫入）後舊結果視為未命中。
+ * 另以筆數上限（LRU）與 TTL 淘汰，TTL 也涵蓋擁有者名稱等非刊登資料的變動。
+ */
+@Component
+@RequiredArgsConstructor
+public class ListingPageCache {
+
+    private static final int MAX_ENTRIES = 500;
+    private static final long TTL_MILLIS = 60_000;
+
+    private final ListingCatalogVersion catalogVersion;
+
+    private final Map<Key, Entry> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * 取得快取結果；未命中或已過期時呼叫 loader 計算並存入
+     *
+     * DTO 是可變物件：存入的是 copier 複製的實例，每次回傳也是另一份複製，
+     * 呼叫端修改回傳的 DTO 不會影響快取與其他使用者
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Page<T> get(Key key, Supplier<Page<T>> loader, UnaryOperator<T> copier) {
+        // 先讀版本號再計算：計算期間若有寫入，這筆結果會以舊版本號存入而自然失效
+        long version = catalogVersion.current();
+        long now = System.currentTimeMillis();
+        Page<T> cached = null;
+        synchronized (cache) {
+            Entry entry = cache.get(key);
+            if (entry != null && entry.version() == version && now - entry.createdAt() < TTL_MILLIS) {
+                cached = (Page<T>) entry.page();
+            }
+        }
+        if (cached != null) {
+            return cached.map(copier::apply);
+        }
+        Page<T> page = loader.get();
+        Page<T> stored = new PageImpl<>(page.getContent().stream().map(copier).toList(),
+                page.getPageable(), page.getTotalElements());
+        synchronized (cache) {
+            cache.put(key, new Entry(version, now, stored));
+        }
+        return page;
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public static Key key(String view, String q, String sort, int page, int size, Long excludeOwnerId,
+                          ListingFacetFilter filter) {
+        String normalizedQ = q == null ? "" : q.trim();
+        ListingFacetFilter normalizedFilter = filter == null || filter.isEmpty() ? null : copyOf(filter);
+        return new Key(view, normalizedQ, sort, page, size, excludeOwnerId, normalizedFilter);
+    }
+
+    // 篩選條件是可變的綁定物件，存成 key 前先複製
+    private static ListingFacetFilter copyOf(ListingFacetFilter filter) {
+        ListingFacetFilter copy = new ListingFacetFilter();
+        copy.setGroupName(filter.getGroupName());
+        copy.setArtistName(filter.getArtistName());
+        copy.setCardSource(filter.getCardSource());
+        copy.setConditionRating(filter.getConditionRating());
+        copy.setHasProtection(filter.getHasProtection());
+        copy.setStatus(filter.getStatus());
+        return copy;
+    }
+
+    public record Key(String view, String q, String sort, int page, int size, Long excludeOwnerId,
+                      ListingFacetFilter filter) {}
+
+    private record Entry(long version, long createdAt, Page<?> page) {}
+}
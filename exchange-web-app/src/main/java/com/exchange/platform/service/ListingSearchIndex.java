@@ -0,0 +1,654 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.entity.ListingCatalogLoadedEvent;
+import com.exchange.platform.entity.ListingChangedEvent;
+import com.exchange.platform.entity.ListingSnapshot;
+import com.exchange.platform.entity.SearchText;
+import com.exchange.platform.repository.ListingRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+/**
+ * 刊登關鍵字搜尋的記憶體倒排索引
+ *
+ * 索引 cardName / artistName / groupName / description 四個欄位：
+ * - 拉丁字母、數字等以單字為 token
+ * - 中日韓文字以 bigram 為 token（每段連續文字的最後一個字另外索引 unigram）
+ *
+ * 查詢時每個 token 以「前綴」比對字典，取候選集合最小的 token 展開候選 ID，
+ * 再以與原本 LIKE 相同的語意（任一欄位包含整個關鍵字，不分大小寫）驗證，
+ * 最後在記憶體排序分頁，只把該頁的 ID 交給資料庫載入。
+ * 關鍵字開頭的英數單字可能落在刊登單字的中間（"ard" 對 "card"），此 token 改由字典的 n-gram 索引
+ * （英數 token 的 1~3 字元片段 -> token）找出包含它的 token，結果與 SQL 後備查詢一致。
+ *
+ * 「相關度」排序以 BM25F 計分：候選集合中各欄位的詞頻依欄位長度正規化、乘上欄位權重
+ * （卡片名稱最高），再以 token 的文件頻率（由倒排索引取得）計算 IDF；只對候選集合計算，
+ * 各欄位詞頻與長度在寫入索引時就存在文件上，查詢時不重新斷詞。
+ *
+ * 寫入索引與查詢都以 SearchText 正規化（NFKC、小寫），全形 / 半形與大小寫不影響比對；
+ * 關鍵字中的團體 / 藝人名稱會依 ListingAliasDictionary 展開成各語言的變體，結果取聯集。
+ *
+ * 熱門關鍵字（SearchQueryAnalytics 提供）可預熱：保存其符合的 listing ID，
+ * 刊登異動時逐一比對增量維護，搜尋這些關鍵字時直接取用，不需再查倒排索引與驗證。
+ *
+ * 啟動時由 ListingCatalogLoader 灌入，之後由 ListingChangedEvent 增量維護；
+ * 載入完成前 isReady() 為 false，呼叫端應退回 SQL LIKE 查詢。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ListingSearchIndex {
+
+    private static final String TRENDING_PROPERTY = ListingRepositoryCustom.TRENDING_PROPERTY;
+    public static final String RELEVANCE_PROPERTY = "relevance";
+
+    // BM25 參數
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // 欄位權重，順序同 Doc.fields：cardName、artistName、groupName、description
+    private static final double[] FIELD_BOOSTS = {3.0, 1.5, 1.5, 1.0};
+    // 字典子字串索引的片段長度上限
+    private static final int GRAM = 3;
+
+    private final ListingTrendingTracker listingTrendingTracker;
+    private final ListingAliasDictionary listingAliasDictionary;
+
+    // token -> listing IDs（有序，供前綴查詢）
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    // listing ID -> 已正規化的索引文件
+    private final Map<Long, Doc> docs = new ConcurrentHashMap<>();
+    // 各欄位的 token 總數（計算平均欄位長度）
+    private final AtomicLongArray fieldLengthTotals = new AtomicLongArray(FIELD_BOOSTS.length);
+    // 英數 token 的 1~GRAM 字元片段 -> 含此片段的 token（字典的子字串索引，隨 postings 增刪維護）
+    private final Map<String, Set<String>> tokenGrams = new ConcurrentHashMap<>();
+    // 已預熱的關鍵字（正規化後）-> 符合的 listing IDs（未套用額外條件）
+    private final Map<String, WarmQuery> warmQueries = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    @EventListener
+    public void onCatalogLoaded(ListingCatalogLoadedEvent event) {
+        ready = true;
+        log.info("Listing search index ready: {} listings, {} terms", docs.size(), postings.size());
+    }
+
+    @EventListener
+    public void onListingChanged(ListingChangedEvent event) {
+        if (event.after() == null) {
+            remove(event.before().id());
+        } else {
+            put(event.after());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 以關鍵字搜尋並分頁
+     *
+     * @param filter 額外條件（擁有者、篩選欄位等），套用在刊登快照上
+     * @return 該頁的 listing ID（已排序）與符合總數；若關鍵字無可索引的 token 則回傳 null
+     */
+    public Result search(String q, Predicate<ListingSnapshot> filter, Pageable pageable) {
+        List<Doc> matches = match(q, filter);
+        if (matches == null) {
+            return null;
+        }
+        Map<Long, Double> trending = pageable.getSort().getOrderFor(TRENDING_PROPERTY) != null
+                ? listingTrendingTracker.scores(matches.stream().map(Doc::id).toList())
+                : Map.of();
+        Map<Long, Double> relevance = pageable.getSort().getOrderFor(RELEVANCE_PROPERTY) != null
+                ? relevance(q, matches)
+                : Map.of();
+        matches.sort(comparatorFor(pageable.getSort(), trending, relevance));
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        List<Long> pageIds = matches.subList(from, to).stream().map(Doc::id).toList();
+        return new Result(pageIds, matches.size());
+    }
+
+    /**
+     * 以關鍵字搜尋，keyset 模式：依 (createdAt, id) 排序，只取游標之後的 limit 筆
+     *
+     * @param afterCreatedAt 游標的 createdAt；null 表示從頭開始
+     * @return 排序後的 listing ID；若關鍵字無可索引的 token 則回傳 null
+     */
+    public List<Long> searchAfter(String q, Predicate<ListingSnapshot> filter, boolean descending,
+                                  LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        List<Doc> matches = match(q, filter);
+        if (matches == null) {
+            return null;
+        }
+        Comparator<Doc> byKey = Comparator.comparing(Doc::createdAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Doc::id);
+        Comparator<Doc> order = descending ? byKey.reversed() : byKey;
+        Doc cursor = afterCreatedAt == null ? null : Doc.cursor(afterCreatedAt, afterId);
+        return matches.stream()
+                .filter(doc -> cursor == null || order.compare(doc, cursor) > 0)
+                .sorted(order)
+                .limit(limit)
+                .map(Doc::id)
+                .toList();
+    }
+
+    /**
+     * 取得所有符合關鍵字與額外條件的刊登快照（未排序）；無可索引 token 時回傳空清單
+     */
+    public List<ListingSnapshot> matchAll(String q, Predicate<ListingSnapshot> filter) {
+        List<Doc> matches = match(q, filter);
+        return matches == null ? List.of() : matches.stream().map(Doc::listing).toList();
+    }
+
+    /**
+     * 預熱這些關鍵字（取代先前的預熱清單）；已預熱的關鍵字沿用原本的結果
+     */
+    public synchronized void warm(Collection<String> queries) {
+        Map<String, WarmQuery> next = new HashMap<>();
+        for (String q : queries) {
+            String key = normalize(q);
+            WarmQuery warm = warmQueries.get(key);
+            if (warm == null) {
+                List<String> phrases = new ArrayList<>();
+                for (String phrase : listingAliasDictionary.expand(key)) {
+                    if (!tokenize(phrase).isEmpty()) {
+                        phrases.add(phrase);
+                    }
+                }
+                List<Doc> matches = matchIndexed(key, null);
+                if (matches == null) {
+                    continue;
+                }
+                Set<Long> ids = ConcurrentHashMap.newKeySet();
+                matches.forEach(doc -> ids.add(doc.id()));
+                warm = new WarmQuery(List.copyOf(phrases), ids);
+            }
+            next.put(key, warm);
+        }
+        warmQueries.keySet().retainAll(next.keySet());
+        warmQueries.putAll(next);
+    }
+
+    /**
+     * 目前已預熱的關鍵字（正規化後）
+     */
+    public Set<String> warmQueries() {
+        return Set.copyOf(warmQueries.keySet());
+    }
+
+    /**
+     * 取得所有符合關鍵字與額外條件的文件（未排序）；無可索引 token 時回傳 null
+     */
+    private List<Doc> match(String q, Predicate<ListingSnapshot> filter) {
+        WarmQuery warm = warmQueries.get(normalize(q));
+        if (warm == null) {
+            return matchIndexed(q, filter);
+        }
+        List<Doc> matches = new ArrayList<>(warm.ids().size());
+        for (Long id : warm.ids()) {
+            Doc doc = docs.get(id);
+            if (doc != null && (filter == null || filter.test(doc.listing()))) {
+                matches.add(doc);
+            }
+        }
+        return matches;
+    }
+
+    // 以倒排索引比對（未預熱的關鍵字）
+    private List<Doc> matchIndexed(String q, Predicate<ListingSnapshot> filter) {
+        List<Doc> matches = null;
+        Set<Long> seen = new HashSet<>();
+        for (String phrase : listingAliasDictionary.expand(normalize(q))) {
+            Set<String> terms = tokenize(phrase);
+            if (terms.isEmpty()) {
+                continue;
+            }
+            if (matches == null) {
+                matches = new ArrayList<>();
+            }
+            matchPhrase(phrase, terms, filter, seen, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * 單一（已正規化、已斷詞）關鍵字的比對；seen 跨變體共用，同一文件只加入一次
+     */
+    private void matchPhrase(String phrase, Set<String> terms, Predicate<ListingSnapshot> filter,
+                             Set<Long> seen, List<Doc> matches) {
+
+        // 關鍵字開頭的英數 token 在刊登中可能接在其他字母之後，前綴比對會漏掉；
+        // 其餘 token 前面必有分隔字元或中日韓文字，刊登中對應的 token 一定以它開頭
+        String head = startsMidWord(phrase) ? terms.iterator().next() : null;
+
+        // 取候選數最少的 token 展開，其餘條件交給整句驗證；開頭 token 只在沒有其他 token 時以 n-gram 索引查出包含它的 token
+        Collection<Set<Long>> narrowest = null;
+        long narrowestSize = Long.MAX_VALUE;
+        for (String term : terms) {
+            if (term.equals(head) && terms.size() > 1) continue;
+            Collection<Set<Long>> sets = term.equals(head) ? substringPostings(term) : prefixPostings(term).values();
+            long size = 0;
+            for (Set<Long> ids : sets) {
+                size += ids.size();
+            }
+            if (size < narrowestSize) {
+                narrowest = sets;
+                narrowestSize = size;
+            }
+        }
+        if (narrowest == null || narrowestSize == 0) {
+            return;
+        }
+
+        for (Set<Long> ids : narrowest) {
+            for (Long id : ids) {
+                if (seen.contains(id)) continue;
+                Doc doc = docs.get(id);
+                if (doc == null) continue;
+                if (filter != null && !filter.test(doc.listing())) continue;
+                if (doc.matches(phrase)) {
+                    seen.add(id);
+                    matches.add(doc);
+                }
+            }
+        }
+    }
+
+    /**
+     * 以 BM25F 計算候選文件的相關度；別名展開後的各變體分別計分，取最高分
+     */
+    private Map<Long, Double> relevance(String q, List<Doc> matches) {
+        long docCount = Math.max(docs.size(), 1);
+        double[] avgLengths = new double[FIELD_BOOSTS.length];
+        for (int f = 0; f < avgLengths.length; f++) {
+            avgLengths[f] = Math.max((double) fieldLengthTotals.get(f) / docCount, 1.0);
+        }
+
+        List<String> phrases = new ArrayList<>();
+        List<List<String>> phraseTerms = new ArrayList<>();
+        Map<String, Double> idf = new HashMap<>();
+        for (String phrase : listingAliasDictionary.expand(normalize(q))) {
+            Set<String> terms = tokenize(phrase);
+            if (terms.isEmpty()) continue;
+            phrases.add(phrase);
+            phraseTerms.add(List.copyOf(terms));
+            for (String term : terms) {
+                idf.computeIfAbsent(term, t -> idf(documentFrequency(t), docCount));
+            }
+        }
+
+        Map<Long, Double> scores = new HashMap<>(matches.size() * 2);
+        for (Doc doc : matches) {
+            double best = 0;
+            for (int p = 0; p < phrases.size(); p++) {
+                if (doc.matches(phrases.get(p))) {
+                    best = Math.max(best, bm25(phraseTerms.get(p), doc, avgLengths, idf));
+                }
+            }
+            scores.put(doc.id(), best);
+        }
+        return scores;
+    }
+
+    // 詞頻與欄位長度取自建立索引時存在 Doc 的統計，計分時不重新斷詞
+    private static double bm25(List<String> terms, Doc doc, double[] avgLengths, Map<String, Double> idf) {
+        double score = 0;
+        for (String term : terms) {
+            // 各欄位詞頻依長度正規化後加權合併，再做一次飽和（BM25F）
+            double tf = 0;
+            for (int f = 0; f < doc.fieldLengths().length; f++) {
+                int count = doc.termFrequency(f, term);
+                if (count > 0) {
+                    tf += FIELD_BOOSTS[f] * count / (1 - B + B * doc.fieldLengths()[f] / avgLengths[f]);
+                }
+            }
+            if (tf > 0) {
+                score += idf.get(term) * tf / (K1 + tf);
+            }
+        }
+        return score;
+    }
+
+    // token 以前綴比對，文件頻率為各前綴 posting 的聯集大小（同時含 card、cards 的文件只算一次）
+    private long documentFrequency(String term) {
+        Collection<Set<Long>> sets = prefixPostings(term).values();
+        if (sets.size() == 1) {
+            return sets.iterator().next().size();
+        }
+        Set<Long> ids = new HashSet<>();
+        for (Set<Long> posting : sets) {
+            ids.addAll(posting);
+        }
+        return ids.size();
+    }
+
+    private static double idf(long df, long docCount) {
+        df = Math.min(df, docCount);
+        return Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+    }
+
+    private NavigableMap<String, Set<Long>> prefixPostings(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+    }
+
+    // 包含 term 的 token 的 posting：term 不超過 GRAM 字元時直接查 n-gram 索引，
+    // 較長時取 term 中候選最少的片段，再逐一確認 token 包含整個 term
+    private Collection<Set<Long>> substringPostings(String term) {
+        Set<String> tokens;
+        if (term.length() <= GRAM) {
+            tokens = tokenGrams.getOrDefault(term, Set.of());
+        } else {
+            tokens = null;
+            for (int i = 0; i + GRAM <= term.length(); i++) {
+                Set<String> candidates = tokenGrams.getOrDefault(term.substring(i, i + GRAM), Set.of());
+                if (tokens == null || candidates.size() < tokens.size()) {
+                    tokens = candidates;
+                }
+            }
+        }
+        List<Set<Long>> sets = new ArrayList<>();
+        for (String token : tokens) {
+            Set<Long> ids = postings.get(token);
+            if (ids != null && token.contains(term)) {
+                sets.add(ids);
+            }
+        }
+        return sets;
+    }
+
+    // token 第一次出現 / 最後一筆移除時維護 n-gram 索引（只索引英數 token，中日韓 token 一律以前綴比對）
+    private void indexGrams(String token, boolean add) {
+        if (isCjk(token.codePointAt(0))) {
+            return;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            for (int n = 1; n <= GRAM && i + n <= token.length(); n++) {
+                String gram = token.substring(i, i + n);
+                if (add) {
+                    tokenGrams.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(token);
+                } else {
+                    Set<String> tokens = tokenGrams.get(gram);
+                    if (tokens != null) {
+                        tokens.remove(token);
+                        if (tokens.isEmpty()) {
+                            tokenGrams.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // 已正規化的關鍵字是否以英數字開頭（可能對應刊登單字的中段）
+    static boolean startsMidWord(String phrase) {
+        int cp = phrase.codePointAt(0);
+        return Character.isLetterOrDigit(cp) && !isCjk(cp);
+    }
+
+    private synchronized void put(ListingSnapshot snapshot) {
+        if (snapshot.id() == null) {
+            return;
+        }
+        removeInternal(snapshot.id());
+        Doc doc = Doc.of(
+                snapshot,
+                new String[] {
+                        normalize(snapshot.cardName()),
+                        normalize(snapshot.artistName()),
+                        normalize(snapshot.groupName()),
+                        normalize(snapshot.description())
+                });
+        docs.put(doc.id(), doc);
+        addFieldLengths(doc, 1);
+        for (String term : doc.terms()) {
+            Set<Long> ids = postings.get(term);
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+                postings.put(term, ids);
+                indexGrams(term, true);
+            }
+            ids.add(doc.id());
+        }
+        // 與 matchPhrase 相同的判定，預熱與否不影響搜尋結果
+        for (WarmQuery warm : warmQueries.values()) {
+            if (warm.phrases().stream().anyMatch(doc::matches)) {
+                warm.ids().add(doc.id());
+            }
+        }
+    }
+
+    private synchronized void remove(Long id) {
+        removeInternal(id);
+    }
+
+    private void removeInternal(Long id) {
+        Doc old = docs.remove(id);
+        if (old == null) {
+            return;
+        }
+        addFieldLengths(old, -1);
+        for (WarmQuery warm : warmQueries.values()) {
+            warm.ids().remove(id);
+        }
+        for (String term : old.terms()) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                    indexGrams(term, false);
+                }
+            }
+        }
+    }
+
+    private void addFieldLengths(Doc doc, int sign) {
+        for (int f = 0; f < doc.fieldLengths().length; f++) {
+            fieldLengthTotals.addAndGet(f, sign * (long) doc.fieldLengths()[f]);
+        }
+    }
+
+    // trending 為排序前取好的熱門分數快照，排序期間不受背景寫入影響；relevance 為候選集合的 BM25 分數
+    private static Comparator<Doc> comparatorFor(Sort sort, Map<Long, Double> trending, Map<Long, Double> relevance) {
+        Comparator<Doc> comparator = null;
+        boolean descending = true;
+        for (Sort.Order order : sort) {
+            Comparator<Doc> c = switch (order.getProperty()) {
+                case "id" -> Comparator.comparing(Doc::id);
+                case "statusRank" -> Comparator.comparingInt(Doc::statusRank);
+                case TRENDING_PROPERTY -> Comparator.comparingDouble(
+                        (Doc d) -> trending.getOrDefault(d.id(), Double.NEGATIVE_INFINITY));
+                case RELEVANCE_PROPERTY -> Comparator.comparingDouble((Doc d) -> relevance.getOrDefault(d.id(), 0.0));
+                case "updatedAt" -> Comparator.comparing(Doc::updatedAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+                default -> Comparator.comparing(Doc::createdAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+            };
+            if (comparator == null) {
+                descending = order.isDescending();
+            }
+            c = order.isDescending() ? c.reversed() : c;
+            comparator = comparator == null ? c : comparator.thenComparing(c);
+        }
+        Comparator<Doc> byId = descending ? Comparator.comparing(Doc::id).reversed() : Comparator.comparing(Doc::id);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    // === 正規化與斷詞 ===
+
+    static String normalize(String text) {
+        return SearchText.normalize(text);
+    }
+
+    /**
+     * 將已正規化的文字切成 token：非 CJK 文字以單字為單位，CJK 以 bigram 為單位
+     */
+    static Set<String> tokenize(String normalized) {
+        Set<String> tokens = new LinkedHashSet<>();
+        tokenize(normalized, tokens);
+        return tokens;
+    }
+
+    /**
+     * 同 tokenize，但保留重複的 token（計算詞頻與欄位長度用）
+     */
+    static List<String> tokenList(String normalized) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(normalized, tokens);
+        return tokens;
+    }
+
+    private static void tokenize(String normalized, Collection<String> tokens) {
+        StringBuilder word = new StringBuilder();
+        int[] cjkRun = new int[normalized.length()];
+        int cjkLength = 0;
+
+        int i = 0;
+        while (i < normalized.length()) {
+            int cp = normalized.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isCjk(cp)) {
+                flushWord(word, tokens);
+                cjkRun[cjkLength++] = cp;
+            } else if (Character.isLetterOrDigit(cp)) {
+                cjkLength = flushCjk(cjkRun, cjkLength, tokens);
+                word.appendCodePoint(cp);
+            } else {
+                flushWord(word, tokens);
+                cjkLength = flushCjk(cjkRun, cjkLength, tokens);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjkRun, cjkLength, tokens);
+    }
+
+    private static void flushWord(StringBuilder word, Collection<String> tokens) {
+        if (word.length() > 0) {
+            tokens.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static int flushCjk(int[] run, int length, Collection<String> tokens) {
+        for (int k = 0; k + 1 < length; k++) {
+            tokens.add(new String(run, k, 2));
+        }
+        if (length > 0) {
+            tokens.add(new String(run, length - 1, 1));
+        }
+        return 0;
+    }
+
+    /**
+     * 搜尋的比對判定：任一（已正規化的）欄位包含整個關鍵字；SavedSearchPercolator 也以此判定，兩邊結果一致
+     */
+    static boolean containsPhrase(String[] fields, String phrase) {
+        for (String field : fields) {
+            if (field.contains(phrase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    public record Result(List<Long> ids, long total) {}
+
+    private record WarmQuery(List<String> phrases, Set<Long> ids) {}
+
+    /**
+     * 索引文件：fields 為已正規化的欄位文字；fieldTerms / fieldLengths 為建立時算好的各欄位詞頻（token 有序，
+     * 供前綴加總）與 token 數，BM25 計分與欄位長度統計直接取用
+     */
+    private record Doc(ListingSnapshot listing, String[] fields, List<NavigableMap<String, Integer>> fieldTerms,
+                       int[] fieldLengths) {
+
+        static Doc of(ListingSnapshot listing, String[] fields) {
+            List<NavigableMap<String, Integer>> fieldTerms = new ArrayList<>(fields.length);
+            int[] fieldLengths = new int[fields.length];
+            for (int f = 0; f < fields.length; f++) {
+                List<String> tokens = tokenList(fields[f]);
+                NavigableMap<String, Integer> counts = new TreeMap<>();
+                for (String token : tokens) {
+                    counts.merge(token, 1, Integer::sum);
+                }
+                fieldTerms.add(counts);
+                fieldLengths[f] = tokens.size();
+            }
+            return new Doc(listing, fields, fieldTerms, fieldLengths);
+        }
+
+        static Doc cursor(LocalDateTime createdAt, Long id) {
+            return new Doc(new ListingSnapshot(id, null, null, null, null, null, null, null, null, null, createdAt, null),
+                    new String[0], List.of(), new int[0]);
+        }
+
+        Long id() {
+            return listing.id();
+        }
+
+        LocalDateTime createdAt() {
+            return listing.createdAt();
+        }
+
+        LocalDateTime updatedAt() {
+            return listing.updatedAt();
+        }
+
+        int statusRank() {
+            return listing.status() != null ? listing.status().getRank() : Integer.MAX_VALUE;
+        }
+
+        Set<String> terms() {
+            Set<String> terms = new LinkedHashSet<>();
+            for (NavigableMap<String, Integer> counts : fieldTerms) {
+                terms.addAll(counts.keySet());
+            }
+            return terms;
+        }
+
+        // 欄位 f 中以 term 開頭的 token 個數（與搜尋相同的前綴語意）
+        int termFrequency(int f, String term) {
+            int count = 0;
+            for (int n : fieldTerms.get(f).subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+                count += n;
+            }
+            return count;
+        }
+
+        /**
+         * 文件是否符合單一（已正規化的）關鍵字：任一欄位包含整個關鍵字。
+         * matchPhrase 的候選集合涵蓋所有符合的文件，結果即為符合此判定的文件；預熱集合的增量維護也只用此判定
+         */
+        boolean matches(String phrase) {
+            return containsPhrase(fields, phrase);
+        }
+    }
+}
@@ -1,8 +1,18 @@
 package com.exchange.platform.service;
 
 import com.exchange.platform.dto.CreateListingRequest;
+import com.exchange.platform.dto.ListingCardDTO;
+import com.exchange.platform.dto.ListingFacetFilter;
+import com.exchange.platform.dto.ListingFacetsDTO;
 import com.exchange.platform.dto.ListingDTO;
+import com.exchange.platform.dto.ListingSliceDTO;
+import com.exchange.platform.dto.ListingSuggestionDTO;
+import com.exchange.platform.entity.EmailNotification;
 import com.exchange.platform.entity.Listing;
+import com.exchange.platform.entity.ListingImages;
+import com.exchange.platform.entity.ListingSnapshot;
+import com.exchange.platform.entity.SearchText;
+import com.exchange.platform.repository.ListingCardView;
 import com.exchange.platform.repository.ListingRepository;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
@@ -11,10 +21,17 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.springframework.data.jpa.domain.Specification;
@@ -26,8 +43,29 @@ public class ListingService {
 
     private final ListingRepository listingRepository;
     private final com.exchange.platform.repository.ProposalRepository proposalRepository;
-    private final com.exchange.platform.repository.UserRepository userRepository;
+    private final ListingSearchIndex listingSearchIndex;
+    private final UserDisplayNameResolver userDisplayNameResolver;
+    private final ListingFacetCounter listingFacetCounter;
+    private final ListingPageCache listingPageCache;
+    private final ListingSuggestIndex listingSuggestIndex;
+    private final SavedSearchPercolator savedSearchPercolator;
+    private final EmailNotificationService emailNotificationService;
+    private final ListingAliasDictionary listingAliasDictionary;
+    private final ListingImageHashService listingImageHashService;
     private static final String SESSION_USER_ID = "userId"; // 與 AuthService 相同 key
+    private static final String STATUS_RANK_SORT = "statusRank";
+    private static final String TRENDING_SORT = "trending";
+    private static final String RELEVANCE_SORT = "relevance";
+    // GET /api/listings?ids= 一次最多取得的筆數
+    private static final int MAX_BATCH_IDS = 100;
+    // 熱門：依前向衰減分數（listing_stats）由高到低，沒有活動的刊登依上架時間排在後面
+    private static final Sort TRENDING_ORDER = Sort.by(
+            Sort.Order.desc(ListingRepository.TRENDING_PROPERTY), Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+    // 相關度：關鍵字的 BM25 分數（記憶體索引計算），同分依上架時間；沒有關鍵字或走 SQL 時只依上架時間
+    private static final Sort RELEVANCE_ORDER = Sort.by(
+            Sort.Order.desc(ListingSearchIndex.RELEVANCE_PROPERTY), Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+    private static final Sort STATUS_RANK_ORDER = Sort.by(
+            Sort.Order.asc("statusRank"), Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
 
     public ListingDTO create(CreateListingRequest request, HttpSession session) {
         Long userId = (Long) session.getAttribute(SESSION_USER_ID);
@@ -37,8 +75,6 @@ public class ListingService {
 
         // 處理圖片路徑
         System.out.println("DEBUG - create(): 接收到的圖片檔名清單: " + request.getImageFileNames());
-        String imagePathsJson = serializeImagePaths(request.getImageFileNames());
-        System.out.println("DEBUG - create(): 序列化後的JSON: " + imagePathsJson);
         
         Listing listing = Listing.builder()
                 .cardName(request.getCardName())
@@ -49,22 +85,161 @@ public class ListingService {
                 .conditionRating(request.getConditionRating())
                 .hasProtection(request.getHasProtection())
                 .remarks(request.getRemarks())
-                .imagePaths(imagePathsJson)
+                .imagePaths(ListingImages.of(request.getImageFileNames()))
                 .userId(userId)
                 .build();
 
+        List<ListingImageHashService.ImageHash> hashes = flagDuplicateImages(List.of(listing), userId).get(0);
         listing = listingRepository.save(listing);
+        listingImageHashService.store(listing.getId(), userId, hashes);
+        alertSavedSearches(List.of(listing));
         return toDTO(listing, userId);
     }
 
+    /**
+     * 批次建立刊登：一次 saveAll，ID 由 pooled 序列取得，flush 時以 JDBC 批次 INSERT 寫入
+     */
+    public List<ListingDTO> createBulk(List<CreateListingRequest> requests, HttpSession session) {
+        Long userId = (Long) session.getAttribute(SESSION_USER_ID);
+        if (userId == null) {
+            throw new UnauthorizedException();
+        }
+
+        List<Listing> listings = new ArrayList<>(requests.size());
+        for (CreateListingRequest request : requests) {
+            listings.add(Listing.builder()
+                    .cardName(request.getCardName())
+                    .groupName(request.getGroupName())
+                    .artistName(request.getArtistName())
+                    .description(request.getDescription())
+                    .cardSource(request.getCardSource())
+                    .conditionRating(request.getConditionRating())
+                    .hasProtection(request.getHasProtection())
+                    .remarks(request.getRemarks())
+                    .imagePaths(ListingImages.of(request.getImageFileNames()))
+                    .userId(userId)
+                    .build());
+        }
+        List<List<ListingImageHashService.ImageHash>> hashes = flagDuplicateImages(listings, userId);
+
+        listings = listingRepository.saveAll(listings);
+        for (int i = 0; i < listings.size(); i++) {
+            listingImageHashService.store(listings.get(i).getId(), userId, hashes.get(i));
+        }
+        alertSavedSearches(listings);
+        return toDTOs(listings, userId);
+    }
+
+    /**
+     * 取出上傳時算好的圖片感知雜湊；近似圖片中最早的刊登視為原圖，
+     * 原圖屬於其他使用者時記錄在 duplicateImageOf（重複使用自己的圖片不標記）
+     * 整批共用一個等待期限，所有候選刊登以一次 findAllById 載入
+     */
+    private List<List<ListingImageHashService.ImageHash>> flagDuplicateImages(List<Listing> listings, Long userId) {
+        List<List<ListingImageHashService.ImageHash>> hashes = listingImageHashService.takeAll(
+                listings.stream().map(l -> l.images().fileNames()).toList(), userId);
+        List<java.util.Set<Long>> candidates = new ArrayList<>(listings.size());
+        java.util.Set<Long> allCandidates = new java.util.HashSet<>();
+        for (List<ListingImageHashService.ImageHash> h : hashes) {
+            java.util.Set<Long> ids = listingImageHashService.nearDuplicates(h);
+            candidates.add(ids);
+            allCandidates.addAll(ids);
+        }
+        if (allCandidates.isEmpty()) {
+            return hashes;
+        }
+
+        java.util.Map<Long, Listing> loaded = new java.util.HashMap<>();
+        listingRepository.findAllById(allCandidates).forEach(l -> loaded.put(l.getId(), l));
+        for (int i = 0; i < listings.size(); i++) {
+            Listing listing = listings.get(i);
+            candidates.get(i).stream()
+                    .map(loaded::get)
+                    .filter(java.util.Objects::nonNull)
+                    .min(java.util.Comparator.comparing(Listing::getCreatedAt).thenComparing(Listing::getId))
+                    .filter(original -> !original.getUserId().equals(listing.getUserId()))
+                    .ifPresent(original -> listing.setDuplicateImageOf(original.getId()));
+        }
+        return hashes;
+    }
+
+    /**
+     * 以反向索引找出關注這些新刊登的使用者，通知與刊登同交易寫入，提交後才異步寄出
+     */
+    private void alertSavedSearches(List<Listing> listings) {
+        List<SavedSearchPercolator.Match> matches = new ArrayList<>();
+        for (Listing listing : listings) {
+            matches.addAll(savedSearchPercolator.match(ListingSnapshot.of(listing)));
+        }
+        queueAlerts(matches);
+    }
+
+    /**
+     * 刊登異動後才符合的關注搜尋也要通知（例如編輯時加入了關鍵字）：異動前已符合的使用者略過，
+     * 同一 (使用者, 刊登) 已通知過的也不再通知。
+     * 刊登狀態目前只會由 AVAILABLE 往後走，沒有解鎖回 AVAILABLE 的路徑；日後新增時應同樣呼叫此方法
+     */
+    private void alertSavedSearches(ListingSnapshot before, Listing listing) {
+        List<SavedSearchPercolator.Match> matches = savedSearchPercolator.match(ListingSnapshot.of(listing));
+        if (matches.isEmpty()) {
+            return;
+        }
+        java.util.Set<Long> skipped = new java.util.HashSet<>();
+        for (SavedSearchPercolator.Match match : savedSearchPercolator.match(before)) {
+            skipped.add(match.userId());
+        }
+        skipped.addAll(emailNotificationService.savedSearchAlertRecipients(listing.getId()));
+        queueAlerts(matches.stream().filter(m -> !skipped.contains(m.userId())).toList());
+    }
+
+    private void queueAlerts(List<SavedSearchPercolator.Match> matches) {
+        if (matches.isEmpty()) {
+            return;
+        }
+        List<EmailNotification> queued = emailNotificationService.queueSavedSearchAlerts(matches);
+        if (queued.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emailNotificationService.sendQueuedAsync(queued);
+                }
+            });
+        } else {
+            emailNotificationService.sendQueuedAsync(queued);
+        }
+    }
+
     @Transactional(readOnly = true)
     public ListingDTO getById(Long id) {
         Listing l = listingRepository.findById(id).orElseThrow(NotFoundException::new);
         return toDTO(l);
     }
 
+    /**
+     * 批次取得多筆刊登：一次 findAllById、擁有者名稱一次解析，依請求順序回傳
+     * 重複的 ID 只回傳一次，不存在的 ID 略過
+     */
+    @Transactional(readOnly = true)
+    public List<ListingDTO> getByIds(List<Long> ids, HttpSession session) {
+        List<Long> distinct = ids.stream().filter(java.util.Objects::nonNull).distinct().toList();
+        if (distinct.size() > MAX_BATCH_IDS) {
+            throw new TooManyIdsException();
+        }
+        Long currentUserId = (Long) session.getAttribute(SESSION_USER_ID);
+        return toDTOs(loadInOrder(distinct), currentUserId);
+    }
+
     @Transactional(readOnly = true)
     public List<ListingDTO> list(Integer page, Integer size, String q, String sort, HttpSession session) {
+        return list(page, size, q, sort, null, session);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ListingDTO> list(Integer page, Integer size, String q, String sort, ListingFacetFilter filter,
+                                 HttpSession session) {
         Long currentUserId = (Long) session.getAttribute(SESSION_USER_ID);
         
         // 1-based page number from API; convert to 0-based for Spring Data
@@ -74,59 +249,207 @@ public class ListingService {
     Sort sortSpec = parseSort(sort);
         Pageable pageable = PageRequest.of(pageIndex, pageSize, sortSpec);
 
-        Page<Listing> pg;
-        if (q != null && !q.isBlank()) {
-            // 搜尋卡片名稱、藝人名稱、團體名稱或描述
-            pg = listingRepository.findByCardNameContainingIgnoreCaseOrArtistNameContainingIgnoreCaseOrGroupNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(
-                q, q, q, q, pageable);
-        } else {
-            pg = listingRepository.findAll(pageable);
-        }
-        return pg.stream().map(l -> toDTO(l, currentUserId)).collect(Collectors.toList());
+        // 搜尋卡片名稱、藝人名稱、團體名稱或描述
+        Page<Listing> pg = findPage(q, null, null, filter, pageable);
+        return toDTOs(pg.getContent(), currentUserId);
     }
 
     @Transactional(readOnly = true)
     public Page<ListingDTO> listPage(Integer page, Integer size, String q, String sort, Long excludeOwnerId) {
+        return listPage(page, size, q, sort, excludeOwnerId, null);
+    }
+
+    // 結果快取命中時不需要交易（也就不取得資料庫連線），因此以 SUPPORTS 執行
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Page<ListingDTO> listPage(Integer page, Integer size, String q, String sort, Long excludeOwnerId,
+                                     ListingFacetFilter filter) {
         // 1-based page number from API; convert to 0-based for Spring Data
         int pageIndex = (page == null || page <= 1) ? 0 : page - 1;
         int pageSize = (size == null || size <= 0) ? 5 : Math.min(size, 100);
 
-        Sort sortSpec = parseSort(sort);
+        Sort sortSpec = parseBrowseSort(sort);
         Pageable pageable = PageRequest.of(pageIndex, pageSize, sortSpec);
 
-        Specification<Listing> baseSpec = buildBaseSpec(q, null, excludeOwnerId);
-        
-        // 使用標準Spring Data分頁，依賴statusRank確保COMPLETED項目在後
-        Page<Listing> result = listingRepository.findAll(baseSpec, pageable);
+        ListingPageCache.Key key = ListingPageCache.key("listing", q, sortSpec.toString(), pageIndex, pageSize,
+                excludeOwnerId, filter);
+        listingRepository.flushPendingWrites();
+        return listingPageCache.get(key, () -> {
+            // 使用標準Spring Data分頁，依賴statusRank確保COMPLETED項目在後
+            Page<Listing> result = findPage(q, null, excludeOwnerId, filter, pageable);
 
-        List<ListingDTO> content = result.getContent().stream()
-                .map(this::toDTO)
-                .toList();
+            List<ListingDTO> content = toDTOs(result.getContent(), null);
 
-        return new org.springframework.data.domain.PageImpl<>(content, pageable, result.getTotalElements());
+            return new org.springframework.data.domain.PageImpl<>(content, pageable, result.getTotalElements());
+        }, ListingDTO::copy);
     }
     
+    /**
+     * 瀏覽頁卡片列表：以投影查詢，不載入 TEXT 欄位與完整實體
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Page<ListingCardDTO> listCardPage(Integer page, Integer size, String q, String sort, Long excludeOwnerId,
+                                             ListingFacetFilter filter) {
+        // 1-based page number from API; convert to 0-based for Spring Data
+        int pageIndex = (page == null || page <= 1) ? 0 : page - 1;
+        int pageSize = (size == null || size <= 0) ? 5 : Math.min(size, 100);
+
+        Sort sortSpec = parseBrowseSort(sort);
+        Pageable pageable = PageRequest.of(pageIndex, pageSize, sortSpec);
+
+        ListingPageCache.Key key = ListingPageCache.key("card", q, sortSpec.toString(), pageIndex, pageSize,
+                excludeOwnerId, filter);
+        listingRepository.flushPendingWrites();
+        return listingPageCache.get(key, () -> {
+            Page<ListingCardView> result;
+            ListingSearchIndex.Result hits = searchIndex(q, null, excludeOwnerId, filter, pageable);
+            if (hits != null) {
+                result = new org.springframework.data.domain.PageImpl<>(loadCardsInOrder(hits.ids()), pageable, hits.total());
+            } else {
+                result = listingRepository.findCards(buildBaseSpec(q, null, excludeOwnerId, filter), sqlPageable(pageable));
+            }
+
+            List<ListingCardDTO> content = toCardDTOs(result.getContent(), null);
+            return new org.springframework.data.domain.PageImpl<>(content, pageable, result.getTotalElements());
+        }, ListingCardDTO::copy);
+    }
+
     @Transactional(readOnly = true)
     public Page<ListingDTO> myListingsPage(Long ownerId, Integer page, Integer size, String q, String sort) {
         // 1-based page number from API; convert to 0-based for Spring Data
         int pageIndex = (page == null || page <= 1) ? 0 : page - 1;
         int pageSize = (size == null || size <= 0) ? 5 : Math.min(size, 100);
 
-    Sort sortSpec = parseSort(sort);
+        Sort sortSpec = parseBrowseSort(sort);
         Pageable pageable = PageRequest.of(pageIndex, pageSize, sortSpec);
 
-        Specification<Listing> baseSpec = buildBaseSpec(q, ownerId, null);
-        
         // 使用標準Spring Data分頁，依賴statusRank確保COMPLETED項目在後
-        Page<Listing> result = listingRepository.findAll(baseSpec, pageable);
+        Page<Listing> result = findPage(q, ownerId, null, null, pageable);
 
-        List<ListingDTO> content = result.getContent().stream()
-                .map(l -> toDTO(l, ownerId))
-                .toList();
+        List<ListingDTO> content = toDTOs(result.getContent(), ownerId);
 
         return new org.springframework.data.domain.PageImpl<>(content, pageable, result.getTotalElements());
     }
 
+    /**
+     * 篩選選單：各欄位的值與目前刊登筆數（由記憶體計數取得，不查資料表）
+     */
+    @Transactional(readOnly = true)
+    public ListingFacetsDTO facets(int limit) {
+        listingRepository.flushPendingWrites();
+        return listingFacetCounter.snapshot(limit);
+    }
+
+    /**
+     * 搜尋自動完成：可交換刊登的卡片名稱、藝人、團體中以 prefix 開頭的值（由記憶體索引取得）
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<ListingSuggestionDTO> suggest(String prefix, Integer limit) {
+        int max = (limit == null || limit <= 0) ? 10 : Math.min(limit, 50);
+        listingRepository.flushPendingWrites();
+        return listingSuggestIndex.suggest(prefix, max);
+    }
+
+    /**
+     * 游標分頁（keyset）：依 (createdAt, id) 排序，每頁固定成本，不做 COUNT
+     *
+     * @param cursor 上一頁回傳的 nextCursor；null 表示第一頁
+     * @param sort   只接受 createdAt 的方向，例如 "createdAt,asc"；預設 desc
+     */
+    @Transactional(readOnly = true)
+    public ListingSliceDTO scroll(String cursor, Integer size, String q, String sort,
+                                  Long ownerId, Long excludeOwnerId, ListingFacetFilter filter,
+                                  Long currentUserId) {
+        int pageSize = (size == null || size <= 0) ? 10 : Math.min(size, 100);
+        Sort.Order createdAtOrder = parseSort(sort).getOrderFor("createdAt");
+        boolean descending = createdAtOrder == null || createdAtOrder.isDescending();
+        ListingCursor after = ListingCursor.decode(cursor);
+
+        // 多取一筆用來判斷是否還有下一頁
+        List<Listing> rows = findSlice(q, ownerId, excludeOwnerId, filter, descending, after, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        String nextCursor = hasNext ? ListingCursor.of(rows.get(rows.size() - 1)).encode() : null;
+        return ListingSliceDTO.builder()
+                .items(toDTOs(rows, currentUserId))
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    private List<Listing> findSlice(String q, Long ownerId, Long excludeOwnerId, ListingFacetFilter filter,
+                                    boolean descending, ListingCursor after, int limit) {
+        if (q != null && !q.isBlank() && listingSearchIndex.isReady()) {
+            listingRepository.flushPendingWrites();
+            List<Long> ids = listingSearchIndex.searchAfter(q, snapshotFilter(ownerId, excludeOwnerId, filter), descending,
+                    after == null ? null : after.createdAt(),
+                    after == null ? null : after.id(),
+                    limit);
+            if (ids != null) {
+                return loadInOrder(ids);
+            }
+        }
+
+        Sort.Direction dir = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort keyOrder = Sort.by(new Sort.Order(dir, "createdAt"), new Sort.Order(dir, "id"));
+        Specification<Listing> spec = buildBaseSpec(q, ownerId, excludeOwnerId, filter);
+        if (after != null) {
+            spec = spec.and(keysetAfter(after, descending));
+        }
+        return listingRepository.findBy(spec, query -> query.sortBy(keyOrder).limit(limit).all());
+    }
+
+    // (createdAt, id) 在游標之後：desc 為 createdAt < c OR (createdAt = c AND id < i)，asc 反之
+    private Specification<Listing> keysetAfter(ListingCursor after, boolean descending) {
+        return (root, query, cb) -> {
+            jakarta.persistence.criteria.Path<LocalDateTime> createdAt = root.get("createdAt");
+            jakarta.persistence.criteria.Path<Long> id = root.get("id");
+            if (descending) {
+                return cb.or(
+                        cb.lessThan(createdAt, after.createdAt()),
+                        cb.and(cb.equal(createdAt, after.createdAt()), cb.lessThan(id, after.id())));
+            }
+            return cb.or(
+                    cb.greaterThan(createdAt, after.createdAt()),
+                    cb.and(cb.equal(createdAt, after.createdAt()), cb.greaterThan(id, after.id())));
+        };
+    }
+
+    /**
+     * keyset 游標：(createdAt, id)，以 Base64URL 編碼成不透明字串
+     */
+    private record ListingCursor(LocalDateTime createdAt, Long id) {
+
+        static ListingCursor of(Listing l) {
+            return new ListingCursor(l.getCreatedAt(), l.getId());
+        }
+
+        static ListingCursor decode(String token) {
+            if (token == null || token.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                return new ListingCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (RuntimeException e) {
+                throw new InvalidCursorException();
+            }
+        }
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // 瀏覽頁未指定排序時，預設狀態優先
+    private Sort parseBrowseSort(String sort) {
+        return (sort == null || sort.isBlank()) ? STATUS_RANK_ORDER : parseSort(sort);
+    }
+
     private Sort parseSort(String sort) {
         // 支援格式: "createdAt,desc" 或 "createdAt,asc"；預設 createdAt desc
         String prop = "createdAt";
@@ -142,6 +465,16 @@ public class ListingService {
                 else if ("DESC".equals(d)) dir = Sort.Direction.DESC;
             }
         }
+        // 狀態優先：可交換在前、已完成在後，同狀態新的在前（由 status_rank 複合索引提供順序）
+        if (prop.equals(STATUS_RANK_SORT)) {
+            return STATUS_RANK_ORDER;
+        }
+        if (prop.equals(TRENDING_SORT)) {
+            return TRENDING_ORDER;
+        }
+        if (prop.equals(RELEVANCE_SORT)) {
+            return RELEVANCE_ORDER;
+        }
         // 白名單屬性，避免任意欄位注入
         if (!prop.equals("createdAt") && !prop.equals("updatedAt") && !prop.equals("id")) {
             prop = "createdAt";
@@ -150,7 +483,97 @@ public class ListingService {
         return Sort.by(new Sort.Order(dir, prop));
     }
 
-    private Specification<Listing> buildBaseSpec(String q, Long ownerId, Long excludeOwnerId) {
+    /**
+     * 關鍵字搜尋先由記憶體倒排索引取得該頁 ID，再以主鍵載入；
+     * 索引尚未就緒或關鍵字無可索引 token 時，退回 LIKE 查詢
+     */
+    private Page<Listing> findPage(String q, Long ownerId, Long excludeOwnerId, ListingFacetFilter filter,
+                                   Pageable pageable) {
+        ListingSearchIndex.Result hits = searchIndex(q, ownerId, excludeOwnerId, filter, pageable);
+        if (hits != null) {
+            return new org.springframework.data.domain.PageImpl<>(loadInOrder(hits.ids()), pageable, hits.total());
+        }
+        return listingRepository.findListings(buildBaseSpec(q, ownerId, excludeOwnerId, filter), sqlPageable(pageable));
+    }
+
+    // 相關度只能由記憶體索引計算，SQL 查詢改依其餘排序條件（上架時間）
+    private static Pageable sqlPageable(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.getOrderFor(ListingSearchIndex.RELEVANCE_PROPERTY) == null) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by(sort.filter(o -> !o.getProperty().equals(ListingSearchIndex.RELEVANCE_PROPERTY)).toList()));
+    }
+
+    // 有關鍵字且索引就緒時回傳該頁 ID；否則回傳 null，由呼叫端走 SQL
+    private ListingSearchIndex.Result searchIndex(String q, Long ownerId, Long excludeOwnerId, ListingFacetFilter filter,
+                                                  Pageable pageable) {
+        if (q == null || q.isBlank() || !listingSearchIndex.isReady()) {
+            return null;
+        }
+        listingRepository.flushPendingWrites();
+        return listingSearchIndex.search(q, snapshotFilter(ownerId, excludeOwnerId, filter), pageable);
+    }
+
+    private List<ListingCardView> loadCardsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        java.util.Map<Long, ListingCardView> byId = listingRepository.findCardsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ListingCardView::id, c -> c));
+        return ids.stream()
+                .map(byId::get)
+                .filter(java.util.Objects::nonNull)
+                .toList();
+    }
+
+    private List<Listing> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        java.util.Map<Long, Listing> byId = listingRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Listing::getId, l -> l));
+        return ids.stream()
+                .map(byId::get)
+                .filter(java.util.Objects::nonNull)
+                .toList();
+    }
+
+    // 與 buildBaseSpec 相同的擁有者與篩選條件，套用在記憶體索引的刊登快照上
+    private static Predicate<ListingSnapshot> snapshotFilter(Long ownerId, Long excludeOwnerId, ListingFacetFilter filter) {
+        Predicate<ListingSnapshot> p = l -> true;
+        if (ownerId != null) {
+            p = p.and(l -> ownerId.equals(l.userId()));
+        }
+        if (excludeOwnerId != null) {
+            p = p.and(l -> !excludeOwnerId.equals(l.userId()));
+        }
+        if (filter == null || filter.isEmpty()) {
+            return p;
+        }
+        if (filter.getGroupName() != null && !filter.getGroupName().isBlank()) {
+            p = p.and(l -> filter.getGroupName().equals(l.groupName()));
+        }
+        if (filter.getArtistName() != null && !filter.getArtistName().isBlank()) {
+            p = p.and(l -> filter.getArtistName().equals(l.artistName()));
+        }
+        if (filter.getCardSource() != null) {
+            p = p.and(l -> filter.getCardSource() == l.cardSource());
+        }
+        if (filter.getConditionRating() != null) {
+            p = p.and(l -> filter.getConditionRating().equals(l.conditionRating()));
+        }
+        if (filter.getHasProtection() != null) {
+            p = p.and(l -> filter.getHasProtection().equals(l.hasProtection()));
+        }
+        if (filter.getStatus() != null) {
+            p = p.and(l -> filter.getStatus() == l.status());
+        }
+        return p;
+    }
+
+    private Specification<Listing> buildBaseSpec(String q, Long ownerId, Long excludeOwnerId, ListingFacetFilter filter) {
         return (root, query, cb) -> {
             List<jakarta.persistence.criteria.Predicate> predicates = new ArrayList<>();
             if (ownerId != null) {
@@ -160,12 +583,32 @@ public class ListingService {
                 predicates.add(cb.notEqual(root.get("userId"), excludeOwnerId));
             }
             if (q != null && !q.isBlank()) {
-                String like = "%" + q.toLowerCase() + "%";
-                jakarta.persistence.criteria.Predicate cardNameLike = cb.like(cb.lower(root.get("cardName")), like);
-                jakarta.persistence.criteria.Predicate artistNameLike = cb.like(cb.lower(root.get("artistName")), like);
-                jakarta.persistence.criteria.Predicate groupNameLike = cb.like(cb.lower(root.get("groupName")), like);
-                jakarta.persistence.criteria.Predicate descLike = cb.like(cb.lower(root.get("description")), like);
-                predicates.add(cb.or(cardNameLike, artistNameLike, groupNameLike, descLike));
+                // search_text 寫入時已正規化，查詢端不需 lower()；別名變體以 OR 合併
+                List<jakarta.persistence.criteria.Predicate> likes = new ArrayList<>();
+                for (String phrase : listingAliasDictionary.expand(SearchText.normalize(q))) {
+                    likes.add(cb.like(root.get("searchText"), "%" + phrase + "%"));
+                }
+                predicates.add(cb.or(likes.toArray(new jakarta.persistence.criteria.Predicate[0])));
+            }
+            if (filter != null) {
+                if (filter.getGroupName() != null && !filter.getGroupName().isBlank()) {
+                    predicates.add(cb.equal(root.get("groupName"), filter.getGroupName()));
+                }
+                if (filter.getArtistName() != null && !filter.getArtistName().isBlank()) {
+                    predicates.add(cb.equal(root.get("artistName"), filter.getArtistName()));
+                }
+                if (filter.getCardSource() != null) {
+                    predicates.add(cb.equal(root.get("cardSource"), filter.getCardSource()));
+                }
+                if (filter.getConditionRating() != null) {
+                    predicates.add(cb.equal(root.get("conditionRating"), filter.getConditionRating()));
+                }
+                if (filter.getHasProtection() != null) {
+                    predicates.add(cb.equal(root.get("hasProtection"), filter.getHasProtection()));
+                }
+                if (filter.getStatus() != null) {
+                    predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+                }
             }
             return predicates.isEmpty() ? cb.conjunction() : cb.and(predicates.toArray(new jakarta.persistence.criteria.Predicate[0]));
         };
@@ -178,18 +621,50 @@ public class ListingService {
     }
     
     private ListingDTO toDTO(Listing l, Long currentUserId) {
+        return toDTO(l, currentUserId, userDisplayNameResolver.resolve(l.getUserId()));
+    }
+
+    /**
+     * 整頁轉換：擁有者名稱一次批次解析，查詢數不隨頁面大小增加
+     */
+    private List<ListingDTO> toDTOs(List<Listing> listings, Long currentUserId) {
+        java.util.Map<Long, String> ownerNames = userDisplayNameResolver.resolveAll(
+                listings.stream().map(Listing::getUserId).collect(Collectors.toSet()));
+        return listings.stream()
+                .map(l -> toDTO(l, currentUserId,
+                        ownerNames.getOrDefault(l.getUserId(), UserDisplayNameResolver.UNKNOWN_USER)))
+                .toList();
+    }
+
+    private List<ListingCardDTO> toCardDTOs(List<ListingCardView> cards, Long currentUserId) {
+        java.util.Map<Long, String> ownerNames = userDisplayNameResolver.resolveAll(
+                cards.stream().map(ListingCardView::userId).collect(Collectors.toSet()));
+        return cards.stream()
+                .map(c -> ListingCardDTO.builder()
+                        .id(c.id())
+                        .cardName(c.cardName())
+                        .groupName(c.groupName())
+                        .artistName(c.artistName())
+                        .cardSource(c.cardSource())
+                        .cardSourceDisplay(c.cardSource() != null ? c.cardSource().getDisplayName() : null)
+                        .conditionRating(c.conditionRating())
+                        .hasProtection(c.hasProtection())
+                        .coverImageUrl(ListingImages.toUrl(c.coverImage()))
+                        .userId(c.userId())
+                        .ownerDisplayName(ownerNames.getOrDefault(c.userId(), UserDisplayNameResolver.UNKNOWN_USER))
+                        .isMine(currentUserId != null && currentUserId.equals(c.userId()))
+                        .status(c.status())
+                        .statusDisplay(c.status() != null ? c.status().getDisplayName() : null)
+                        .createdAt(c.createdAt())
+                        .build())
+                .toList();
+    }
+
+    private ListingDTO toDTO(Listing l, Long currentUserId, String ownerDisplayName) {
         Long userId = l.getUserId();
-        
-        String ownerDisplayName = userId == null ? "未知使用者" :
-            userRepository.findById(userId)
-                .map(user -> user.getDisplayName())
-                .orElse("未知使用者");
 
         boolean isMine = currentUserId != null && userId != null && userId.equals(currentUserId);
         
-        // 解析圖片路徑
-        List<String> imageUrls = parseImageUrls(l.getImagePaths());
-        
         return ListingDTO.builder()
                 .id(l.getId())
                 .cardName(l.getCardName())
@@ -201,10 +676,11 @@ public class ListingService {
                 .conditionRating(l.getConditionRating())
                 .hasProtection(l.getHasProtection())
                 .remarks(l.getRemarks())
-                .imageUrls(imageUrls)
+                .imageUrls(l.images().urls())
                 .userId(userId)
                 .ownerDisplayName(ownerDisplayName)
                 .isMine(isMine)
+                .duplicateImageOf(l.getDuplicateImageOf())
                 .createdAt(l.getCreatedAt())
                 .updatedAt(l.getUpdatedAt())
                 .status(l.getStatus())
@@ -235,6 +711,8 @@ public class ListingService {
             throw new ConflictException();
         }
 
+        ListingSnapshot before = ListingSnapshot.of(listing);
+
         // 更新卡片資訊
         listing.setCardName(request.getCardName());
         listing.setGroupName(request.getGroupName());
@@ -247,11 +725,11 @@ public class ListingService {
         
         // 更新圖片
         if (request.getImageFileNames() != null && !request.getImageFileNames().isEmpty()) {
-            String imagePathsJson = serializeImagePaths(request.getImageFileNames());
-            listing.setImagePaths(imagePathsJson);
+            listing.setImagePaths(ListingImages.of(request.getImageFileNames()));
         }
         
         listing = listingRepository.save(listing);
+        alertSavedSearches(before, listing);
         
         return toDTO(listing, userId);
     }
@@ -285,53 +763,21 @@ public class ListingService {
         }
 
         // 執行刪除
+        listingImageHashService.remove(listing.getId());
         listingRepository.delete(listing);
     }
 
-    // === 圖片處理相關方法 ===
-    private String serializeImagePaths(List<String> imageFileNames) {
-        System.out.println("DEBUG - serializeImagePaths(): 輸入參數: " + imageFileNames);
-        if (imageFileNames == null || imageFileNames.isEmpty()) {
-            System.out.println("DEBUG - serializeImagePaths(): 圖片清單為空，返回null");
-            return null;
-        }
-        // 簡單的JSON序列化，實際專案可使用Jackson
-        String result = "[\"" + String.join("\",\"", imageFileNames) + "\"]";
-        System.out.println("DEBUG - serializeImagePaths(): 序列化結果: " + result);
-        return result;
-    }
-    
-    private List<String> parseImageUrls(String imagePaths) {
-        if (imagePaths == null || imagePaths.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        try {
-            // 簡單的JSON反序列化，移除方括號和引號
-            String cleaned = imagePaths.replaceAll("[\\[\\]\"]", "");
-            if (cleaned.trim().isEmpty()) {
-                return new ArrayList<>();
-            }
-            
-            // 將檔案名稱轉換為完整的URL路徑
-            return List.of(cleaned.split(","))
-                    .stream()
-                    .map(String::trim)
-                    .filter(fileName -> !fileName.isEmpty())
-                    .map(fileName -> "/images/" + fileName)
-                    .toList();
-        } catch (Exception e) {
-            return new ArrayList<>();
-        }
-    }
-
     // 測試方法：獨立測試序列化功能
     public String testSerialization(List<String> fileNames) {
         System.out.println("DEBUG - testSerialization(): 測試輸入: " + fileNames);
-        return serializeImagePaths(fileNames);
+        ListingImages images = ListingImages.of(fileNames);
+        return images.isEmpty() ? null : images.toJson();
     }
 
     public static class UnauthorizedException extends RuntimeException {}
     public static class NotFoundException extends RuntimeException {}
     public static class ForbiddenException extends RuntimeException {}
     public static class ConflictException extends RuntimeException {}
+    public static class InvalidCursorException extends RuntimeException {}
+    public static class TooManyIdsException extends RuntimeException {}
 }
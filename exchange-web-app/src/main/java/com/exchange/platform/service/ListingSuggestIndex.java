@@ -0,0 +1,105 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.dto.ListingSuggestionDTO;
+import com.exchange.platform.entity.Listing;
+import com.exchange.platform.entity.ListingChangedEvent;
+import com.exchange.platform.entity.ListingSnapshot;
+import com.exchange.platform.entity.SearchText;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 搜尋自動完成索引
+ *
+ * 以有序 Map（skip list）保存「可交換」刊登的 cardName / artistName / groupName 相異值，
+ * key 為正規化（NFKC、小寫）後的值，前綴查詢即為 subMap 範圍掃描。
+ * 每個值記錄引用筆數；由 ListingChangedEvent 增量維護，每筆刊登記住上次計入的值，重複事件不會重複計算。
+ */
+@Component
+public class ListingSuggestIndex {
+
+    private static final String[] FIELDS = {"cardName", "artistName", "groupName"};
+
+    // 正規化值 + '\0' + 欄位 + '\0' + 原始值 -> 引用筆數
+    private final ConcurrentSkipListMap<String, Integer> entries = new ConcurrentSkipListMap<>();
+    // listing ID -> 已計入的 key
+    private final Map<Long, String[]> counted = new HashMap<>();
+
+    @EventListener
+    public synchronized void onListingChanged(ListingChangedEvent event) {
+        Long id = event.listingId();
+        if (id == null) {
+            return;
+        }
+        String[] old = counted.remove(id);
+        if (old != null) {
+            for (String key : old) {
+                entries.computeIfPresent(key, (k, c) -> c <= 1 ? null : c - 1);
+            }
+        }
+        ListingSnapshot after = event.after();
+        if (after != null && after.status() == Listing.Status.AVAILABLE) {
+            String[] keys = keysOf(after);
+            counted.put(id, keys);
+            for (String key : keys) {
+                entries.merge(key, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * 依前綴（不分大小寫）取得建議，依引用筆數由多到少
+     */
+    public List<ListingSuggestionDTO> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        if (limit <= 0) {
+            return List.of();
+        }
+        // 掃描整個前綴範圍，以大小為 limit 的 heap 保留筆數最多的值（堆頂為目前最差的一筆）；
+        // 筆數低於堆頂的值不需解析 key
+        Comparator<ListingSuggestionDTO> ranking = Comparator.comparingInt(ListingSuggestionDTO::getCount).reversed()
+                .thenComparing(ListingSuggestionDTO::getValue);
+        PriorityQueue<ListingSuggestionDTO> top = new PriorityQueue<>(limit + 1, ranking.reversed());
+        for (Map.Entry<String, Integer> e : entries.subMap(normalized, true, normalized + Character.MAX_VALUE, true).entrySet()) {
+            int count = e.getValue();
+            if (top.size() >= limit && count < top.peek().getCount()) {
+                continue;
+            }
+            String[] parts = e.getKey().split("\0", 3);
+            top.offer(new ListingSuggestionDTO(parts[2], parts[1], count));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<ListingSuggestionDTO> matches = new ArrayList<>(top);
+        matches.sort(ranking);
+        return matches;
+    }
+
+    private static String[] keysOf(ListingSnapshot s) {
+        String[] values = {s.cardName(), s.artistName(), s.groupName()};
+        List<String> keys = new ArrayList<>(3);
+        for (int i = 0; i < FIELDS.length; i++) {
+            String value = values[i] == null ? "" : values[i].trim();
+            if (!value.isEmpty()) {
+                keys.add(normalize(value) + "\0" + FIELDS[i] + "\0" + value);
+            }
+        }
+        return keys.toArray(new String[0]);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : SearchText.normalize(text.trim());
+    }
+}
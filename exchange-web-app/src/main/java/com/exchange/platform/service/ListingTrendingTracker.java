@@ -0,0 +1,230 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.entity.ListingChangedEvent;
+import com.exchange.platform.entity.ListingStats;
+import com.exchange.platform.repository.ListingStatsRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 刊登熱門度（瀏覽 / 提案）計數
+ *
+ * 每次瀏覽、提案只對記憶體中的 LongAdder 累加，背景執行緒每 5 秒把累積量一次寫入 listing_stats，
+ * 不會每次瀏覽都寫一列資料。
+ *
+ * 熱門分數採「前向衰減」：每筆活動的權重乘上 2^((發生時間 - 基準點) / 半衰期)，
+ * 分數只會增加、不需隨時間重算，且任兩筆刊登的分數比較結果與當下時間無關，可直接建索引排序。
+ * 為避免數值溢位，分數以 log2 保存。
+ */
+@Component
+@Slf4j
+public class ListingTrendingTracker {
+
+    // 瀏覽、提案的權重
+    public static final double VIEW_WEIGHT = 1.0;
+    public static final double PROPOSAL_WEIGHT = 5.0;
+    // 半衰期：一天前的活動只算一半
+    private static final double HALF_LIFE_HOURS = 24.0;
+    private static final LocalDateTime LANDMARK = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final long FLUSH_INTERVAL_MS = 5000;
+    private static final int BATCH_SIZE = 1000;
+
+    private final ListingStatsRepository listingStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // 尚未寫入的累積量
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> pendingProposals = new ConcurrentHashMap<>();
+    // 已寫入的熱門分數（供記憶體搜尋索引排序）
+    private final Map<Long, Double> scores = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "listing-trending-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ListingTrendingTracker(ListingStatsRepository listingStatsRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.listingStatsRepository = listingStatsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int pageIndex = 0;
+        Page<ListingStats> page;
+        do {
+            page = listingStatsRepository.findAll(PageRequest.of(pageIndex++, BATCH_SIZE, Sort.by("listingId")));
+            for (ListingStats stats : page.getContent()) {
+                scores.put(stats.getListingId(), stats.getTrendingScore());
+            }
+        } while (page.hasNext());
+        executor.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        log.info("Listing trending tracker started: {} scored listings", scores.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        flushQuietly();
+    }
+
+    @EventListener
+    public void onListingChanged(ListingChangedEvent event) {
+        // 計數器保留給之後的累加重複使用，只在刊登刪除時移除
+        if (event.isDeleted()) {
+            scores.remove(event.listingId());
+            pendingViews.remove(event.listingId());
+            pendingProposals.remove(event.listingId());
+        }
+    }
+
+    public void recordView(Long listingId) {
+        if (listingId != null) {
+            pendingViews.computeIfAbsent(listingId, k -> new LongAdder()).increment();
+        }
+    }
+
+    public void recordProposal(Long listingId) {
+        if (listingId != null) {
+            pendingProposals.computeIfAbsent(listingId, k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * 已寫入的熱門分數；沒有任何活動時為負無限大（排在最後）
+     */
+    public double score(Long listingId) {
+        return scores.getOrDefault(listingId, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * 一次取得多筆分數的快照，排序期間分數不會被背景寫入改變
+     */
+    public Map<Long, Double> scores(Collection<Long> listingIds) {
+        Map<Long, Double> result = new HashMap<>(listingIds.size() * 2);
+        for (Long id : listingIds) {
+            result.put(id, score(id));
+        }
+        return result;
+    }
+
+    /**
+     * 把累積量寫入 listing_stats；背景執行緒定期呼叫，也可直接呼叫（測試用）
+     * 寫入失敗時累積量放回，下次再試
+     */
+    public void flush() {
+        Map<Long, long[]> deltas = drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        try {
+            Map<Long, Double> updated = transactionTemplate.execute(status -> apply(deltas, now));
+            if (updated != null) {
+                scores.putAll(updated);
+            }
+        } catch (RuntimeException e) {
+            deltas.forEach((id, d) -> {
+                pendingViews.computeIfAbsent(id, k -> new LongAdder()).add(d[0]);
+                pendingProposals.computeIfAbsent(id, k -> new LongAdder()).add(d[1]);
+            });
+            throw e;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Listing trending flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // listing ID -> {views, proposals}
+    private Map<Long, long[]> drain() {
+        Map<Long, long[]> deltas = new HashMap<>();
+        pendingViews.forEach((id, adder) -> {
+            long n = adder.sumThenReset();
+            if (n > 0) deltas.computeIfAbsent(id, k -> new long[2])[0] += n;
+        });
+        pendingProposals.forEach((id, adder) -> {
+            long n = adder.sumThenReset();
+            if (n > 0) deltas.computeIfAbsent(id, k -> new long[2])[1] += n;
+        });
+        return deltas;
+    }
+
+    private Map<Long, Double> apply(Map<Long, long[]> deltas, LocalDateTime now) {
+        Map<Long, ListingStats> existing = new HashMap<>();
+        for (ListingStats stats : listingStatsRepository.findAllById(deltas.keySet())) {
+            existing.put(stats.getListingId(), stats);
+        }
+
+        List<ListingStats> rows = new ArrayList<>(deltas.size());
+        Map<Long, Double> updated = new HashMap<>();
+        for (Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+            long views = entry.getValue()[0];
+            long proposals = entry.getValue()[1];
+            double added = logScore(views * VIEW_WEIGHT + proposals * PROPOSAL_WEIGHT, now);
+
+            ListingStats stats = existing.get(entry.getKey());
+            if (stats == null) {
+                stats = ListingStats.builder()
+                        .listingId(entry.getKey())
+                        .viewCount(views)
+                        .proposalCount(proposals)
+                        .trendingScore(added)
+                        .build();
+            } else {
+                stats.setViewCount(stats.getViewCount() + views);
+                stats.setProposalCount(stats.getProposalCount() + proposals);
+                stats.setTrendingScore(logAdd(stats.getTrendingScore(), added));
+            }
+            stats.setUpdatedAt(now);
+            rows.add(stats);
+            updated.put(stats.getListingId(), stats.getTrendingScore());
+        }
+        listingStatsRepository.saveAll(rows);
+        return updated;
+    }
+
+    // log2(weight * 2^(經過的半衰期數))
+    static double logScore(double weight, LocalDateTime at) {
+        double halfLives = Duration.between(LANDMARK, at).toMillis() / (HALF_LIFE_HOURS * 3_600_000.0);
+        return Math.log(weight) / Math.log(2) + halfLives;
+    }
+
+    // log2(2^a + 2^b)，以較大者為基準避免溢位
+    static double logAdd(double a, double b) {
+        double hi = Math.max(a, b);
+        double lo = Math.min(a, b);
+        if (lo == Double.NEGATIVE_INFINITY) {
+            return hi;
+        }
+        return hi + Math.log1p(Math.pow(2, lo - hi)) / Math.log(2);
+    }
+}
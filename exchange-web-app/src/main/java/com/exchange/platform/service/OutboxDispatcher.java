@@ -0,0 +1,198 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.entity.OutboxEvent;
+import com.exchange.platform.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 交易外寄件匣的投遞端
+ *
+ * 背景執行緒每 POLL_INTERVAL_MS 輪詢到期的 outbox_events，OutboxService 在交易提交後也會立即喚醒。
+ * 每個事件先以條件式 UPDATE 領取（多個節點不會重複投遞），再在獨立交易內投遞並刪除；
+ * 失敗時以指數退避重試，超過 MAX_ATTEMPTS 次保留資料列並停止投遞（next_attempt_at 設為 null）。
+ * 通知事件的投遞只寫入 EmailNotification（錯誤會拋出而非記錄後吞掉），寄信在投遞交易提交後才觸發。
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final int BATCH_SIZE = 100;
+    static final int MAX_ATTEMPTS = 10;
+    private static final long POLL_INTERVAL_MS = 5_000;
+    // 領取後的租約：投遞中途當機的事件在租約到期後重試
+    private static final long LEASE_MS = 5 * 60_000;
+    private static final long MAX_BACKOFF_MS = 10 * 60_000;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ChatService chatService;
+    private final EmailNotificationService emailNotificationService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    // 已排入一次喚醒但尚未執行（同一時間多個交易提交只需投遞一次）
+    private final AtomicBoolean kickPending = new AtomicBoolean();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "outbox-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            ChatService chatService,
+                            EmailNotificationService emailNotificationService,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.chatService = chatService;
+        this.emailNotificationService = emailNotificationService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::dispatchQuietly, 0, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 在背景執行緒盡快投遞一次
+     */
+    public void kick() {
+        if (kickPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                kickPending.set(false);
+                dispatchQuietly();
+            });
+        }
+    }
+
+    /**
+     * 投遞一批到期的事件，回傳成功筆數；背景執行緒定期呼叫，也可直接呼叫（測試用）
+     */
+    public synchronized int dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> due = transactionTemplate.execute(
+                status -> outboxEventRepository.findDue(now, PageRequest.of(0, BATCH_SIZE)));
+        int delivered = 0;
+        for (OutboxEvent event : due) {
+            if (deliver(event, now)) {
+                delivered++;
+            }
+        }
+        if (due.size() == BATCH_SIZE) {
+            kick();
+        }
+        return delivered;
+    }
+
+    private void dispatchQuietly() {
+        try {
+            dispatch();
+        } catch (Exception e) {
+            log.error("Outbox dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean deliver(OutboxEvent event, LocalDateTime now) {
+        Long id = event.getId();
+        int attempts = event.getAttempts();
+        Integer claimed = transactionTemplate.execute(status ->
+                outboxEventRepository.claim(id, attempts, now, now.plus(LEASE_MS, ChronoUnit.MILLIS)));
+        if (claimed == null || claimed != 1) {
+            return false;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                handle(event);
+                outboxEventRepository.deleteDelivered(id);
+            });
+            return true;
+        } catch (Exception e) {
+            int attempt = attempts + 1;
+            LocalDateTime next = attempt >= MAX_ATTEMPTS
+                    ? null
+                    : LocalDateTime.now().plus(backoffMs(attempt), ChronoUnit.MILLIS);
+            if (next == null) {
+                log.error("Outbox event {} ({}) gave up after {} attempts: {}", id, event.getType(), attempt, e.getMessage(), e);
+            } else {
+                log.warn("Outbox event {} ({}) attempt {} failed, retry at {}: {}", id, event.getType(), attempt, next, e.getMessage());
+            }
+            String error = String.valueOf(e.getMessage());
+            String truncated = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markFailed(id, next, truncated));
+            return false;
+        }
+    }
+
+    // 指數退避：2、4、8… 秒，上限 MAX_BACKOFF_MS
+    private static long backoffMs(int attempt) {
+        return Math.min(1000L << Math.min(attempt, 20), MAX_BACKOFF_MS);
+    }
+
+    private void handle(OutboxEvent event) {
+        switch (event.getType()) {
+            case CREATE_CHAT_ROOM -> {
+                OutboxService.ChatRoomPayload p = read(event, OutboxService.ChatRoomPayload.class);
+                chatService.createChatRoom(p.proposalId(), p.userAId(), p.userBId());
+            }
+            case LINK_CHAT_ROOM_SWAP -> {
+                OutboxService.ChatRoomSwapPayload p = read(event, OutboxService.ChatRoomSwapPayload.class);
+                // 聊天室建立事件可能仍在重試：先不關聯（updateChatRoomSwapId 找不到聊天室只會記錄警告），留待下次重試
+                if (chatService.getChatRoomByProposalId(p.proposalId()).isEmpty()) {
+                    throw new IllegalStateException("Chat room for proposal " + p.proposalId() + " not created yet");
+                }
+                chatService.updateChatRoomSwapId(p.proposalId(), p.swapId());
+            }
+            case NOTIFICATION -> {
+                OutboxService.NotificationPayload p = read(event, OutboxService.NotificationPayload.class);
+                // 寫入失敗時拋出，事件保留重試；寄信在投遞交易提交（事件刪除）後才觸發，回滾時不會寄出
+                emailNotificationService.createNotificationOrThrow(p.recipientId(), p.type(),
+                                p.relatedEntityType(), p.relatedEntityId())
+                        .ifPresent(notification -> TransactionSynchronizationManager.registerSynchronization(
+                                new TransactionSynchronization() {
+                                    @Override
+                                    public void afterCommit() {
+                                        emailNotificationService.sendEmailAsync(notification);
+                                    }
+                                }));
+            }
+        }
+    }
+
+    private <T> T read(OutboxEvent event, Class<T> type) {
+        try {
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed outbox payload " + event.getId(), e);
+        }
+    }
+}
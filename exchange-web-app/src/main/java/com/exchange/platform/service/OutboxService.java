@@ -0,0 +1,82 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.entity.EmailNotification.NotificationType;
+import com.exchange.platform.entity.OutboxEvent;
+import com.exchange.platform.entity.Proposal;
+import com.exchange.platform.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 交易外寄件匣的寫入端
+ * 在呼叫端的交易內寫入 outbox_events（與業務資料一起提交或回滾），交易提交後喚醒 OutboxDispatcher 投遞
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final ObjectMapper objectMapper;
+
+    // 各事件類型的投遞參數
+    public record ChatRoomPayload(Long proposalId, Long userAId, Long userBId) {}
+
+    public record ChatRoomSwapPayload(Long proposalId, Long swapId) {}
+
+    public record NotificationPayload(Long recipientId, NotificationType type,
+                                      String relatedEntityType, Long relatedEntityId) {}
+
+    /**
+     * 建立提案聊天室（ChatService.createChatRoom）
+     */
+    public void createChatRoom(Long proposalId, Long userAId, Long userBId) {
+        enqueue(OutboxEvent.Type.CREATE_CHAT_ROOM, new ChatRoomPayload(proposalId, userAId, userBId));
+    }
+
+    /**
+     * 聊天室關聯 Swap（ChatService.updateChatRoomSwapId）
+     */
+    public void linkChatRoomSwap(Long proposalId, Long swapId) {
+        enqueue(OutboxEvent.Type.LINK_CHAT_ROOM_SWAP, new ChatRoomSwapPayload(proposalId, swapId));
+    }
+
+    /**
+     * 提案相關電子郵件通知：投遞時以 EmailNotificationService.createNotificationOrThrow 寫入，提交後才寄信
+     */
+    public void sendProposalNotification(Proposal proposal, NotificationType type, Long recipientId) {
+        sendProposalNotification(proposal.getId(), type, recipientId);
+    }
+
+    public void sendProposalNotification(Long proposalId, NotificationType type, Long recipientId) {
+        enqueue(OutboxEvent.Type.NOTIFICATION, new NotificationPayload(recipientId, type, "Proposal", proposalId));
+    }
+
+    private void enqueue(OutboxEvent.Type type, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload " + type, e);
+        }
+        outboxEventRepository.save(OutboxEvent.builder().type(type).payload(json).build());
+
+        // 提交後立即喚醒投遞，不必等下一次輪詢；回滾則事件一併消失
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxDispatcher.kick();
+                }
+            });
+        } else {
+            outboxDispatcher.kick();
+        }
+    }
+}
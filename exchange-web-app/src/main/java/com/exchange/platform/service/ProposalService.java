@@ -7,6 +7,7 @@ import com.exchange.platform.entity.Listing;
 import com.exchange.platform.entity.Proposal;
 import com.exchange.platform.entity.ProposalItem;
 import com.exchange.platform.repository.ListingRepository;
+import com.exchange.platform.repository.ProposalPartyView;
 import com.exchange.platform.repository.ProposalRepository;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
@@ -17,8 +18,14 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,18 +36,33 @@ public class ProposalService {
     private final ProposalRepository proposalRepository;
     private final ListingRepository listingRepository;
     private final com.exchange.platform.repository.SwapRepository swapRepository;
-    private final com.exchange.platform.repository.UserRepository userRepository;
-    private final ChatService chatService;
-    private final EmailNotificationService emailNotificationService;
+    private final UserDisplayNameResolver userDisplayNameResolver;
+    private final OutboxService outboxService;
+    private final UserCounterService userCounterService;
+    private final ListingTrendingTracker listingTrendingTracker;
     private static final String SESSION_USER_ID = "userId";
 
     public ProposalDTO create(CreateProposalRequest req, HttpSession session) {
         Long userId = (Long) session.getAttribute(SESSION_USER_ID);
         if (userId == null) throw new UnauthorizedException();
 
+        // 對方的刊登與提供的刊登一次載入（重複的 ID 只算一次），之後在記憶體驗證
+        List<Long> offeredIds = req.getProposerListingIds().stream()
+                .filter(java.util.Objects::nonNull)
+                .distinct()
+                .toList();
+        Set<Long> allIds = new LinkedHashSet<>(offeredIds);
+        allIds.add(req.getListingId());
+        Map<Long, Listing> byId = new HashMap<>();
+        for (Listing listing : listingRepository.findAllById(allIds)) {
+            byId.put(listing.getId(), listing);
+        }
+
         // Validate receiver's listing (what proposer wants)
-        Listing receiverListing = listingRepository.findById(req.getListingId())
-                .orElseThrow(NotFoundException::new);
+        Listing receiverListing = byId.get(req.getListingId());
+        if (receiverListing == null) {
+            throw new NotFoundException();
+        }
 
         // 檢查是否為自己的物品
         if (receiverListing.getUserId().equals(userId)) {
@@ -48,10 +70,12 @@ public class ProposalService {
         }
 
         // Validate proposer's listings (what proposer offers)
-        List<Listing> proposerListings = new ArrayList<>();
-        for (Long listingId : req.getProposerListingIds()) {
-            Listing listing = listingRepository.findById(listingId)
-                    .orElseThrow(() -> new NotFoundException());
+        List<Listing> proposerListings = new ArrayList<>(offeredIds.size());
+        for (Long listingId : offeredIds) {
+            Listing listing = byId.get(listingId);
+            if (listing == null) {
+                throw new NotFoundException();
+            }
             
             // Verify proposer owns these listings
             if (!listing.getUserId().equals(userId)) {
@@ -67,10 +91,8 @@ public class ProposalService {
         }
 
         // 檢查是否已經對該 listing 提出過 PENDING 提案
-        boolean hasPendingProposal = proposalRepository
-                .findByProposerIdAndListingIdAndStatus(userId, receiverListing.getId(), Proposal.Status.PENDING)
-                .isPresent();
-        if (hasPendingProposal) {
+        if (proposalRepository.existsByProposerIdAndListingIdAndStatus(
+                userId, receiverListing.getId(), Proposal.Status.PENDING)) {
             throw new ConflictException();
         }
 
@@ -86,9 +108,6 @@ public class ProposalService {
         // Set receiver as listing owner
         p.setReceiverId(receiverListing.getUserId());
         
-        // Save proposal first to get ID
-        p = proposalRepository.save(p);
-        
         // Create ProposalItems for proposer's listings (what proposer offers)
         for (Listing listing : proposerListings) {
             ProposalItem item = ProposalItem.builder()
@@ -107,16 +126,18 @@ public class ProposalService {
                 .build();
         p.getProposalItems().add(receiverItem);
         
-        // Save again with items (cascade will save ProposalItems)
+        // 提案與明細一次儲存（cascade），明細 ID 由 pooled 序列取得，flush 時批次 INSERT
         p = proposalRepository.save(p);
+
+        // 熱門度：被提案的刊登（只累加記憶體計數，批次寫入）
+        listingTrendingTracker.recordProposal(receiverListing.getId());
         
-        // 自動創建聊天室
-        chatService.createChatRoom(p.getId(), userId, receiverListing.getUserId());
-        
-        // 發送電子郵件通知給接收者
-        emailNotificationService.sendProposalNotification(p, 
-                NotificationType.PROPOSAL_RECEIVED, 
+        // 自動創建聊天室、發送電子郵件通知給接收者：寫入 outbox，交易提交後非同步投遞
+        outboxService.createChatRoom(p.getId(), userId, receiverListing.getUserId());
+        outboxService.sendProposalNotification(p,
+                NotificationType.PROPOSAL_RECEIVED,
                 receiverListing.getUserId());
+        userCounterService.adjust(receiverListing.getUserId(), UserCounterService.Counter.PENDING_PROPOSALS, 1);
         
         return toDTO(p);
     }
@@ -129,58 +150,84 @@ public class ProposalService {
         Listing listing = listingRepository.findById(p.getListingId()).orElseThrow(NotFoundException::new);
         if (!listing.getUserId().equals(userId)) throw new ForbiddenException();
         
-        // Prevent duplicate accepts on locked/completed listings
-        if (listing.getStatus() != null
-            && listing.getStatus() != com.exchange.platform.entity.Listing.Status.AVAILABLE) {
+        // 條件式更新取代「先檢查再寫入」：狀態檢查與寫入在同一句 UPDATE，
+        // 重複點擊或提供重疊卡片的兩個提案同時接受時，只有一個能更新成功，其餘回 409
+        if (proposalRepository.transitionStatus(p.getId(), Proposal.Status.PENDING,
+                Proposal.Status.ACCEPTED, LocalDateTime.now()) != 1) {
             throw new ConflictException();
         }
+        p = proposalRepository.findByIdWithItems(proposalId).orElseThrow(NotFoundException::new);
 
-        // Verify all proposer's listings are still available
+        // 鎖定所有相關刊登：任一張已非 AVAILABLE 就回 409，由交易回滾還原前面的更新
+        Set<Long> lockIds = new LinkedHashSet<>();
+        lockIds.add(p.getListingId());
         for (ProposalItem item : p.getProposalItems()) {
             if (item.getSide() == ProposalItem.Side.OFFERED) {
-                Listing proposerListing = item.getListing();
-                if (proposerListing.getStatus() != Listing.Status.AVAILABLE) {
-                    throw new ConflictException();
-                }
+                lockIds.add(item.getListing().getId());
             }
         }
-
-        p.setStatus(Proposal.Status.ACCEPTED);
-        proposalRepository.save(p);
+        if (listingRepository.transitionStatus(lockIds, Listing.Status.AVAILABLE, Listing.Status.LOCKED)
+                != lockIds.size()) {
+            throw new ConflictException();
+        }
 
         // Create Swap
         com.exchange.platform.entity.Swap swap = com.exchange.platform.entity.Swap.builder()
-                .listingId(listing.getId())
+                .listingId(p.getListingId())
                 .proposalId(p.getId())
-                .aUserId(listing.getUserId())
+                .aUserId(userId)
                 .bUserId(p.getProposerId())
                 .status(com.exchange.platform.entity.Swap.Status.IN_PROGRESS)
                 .build();
         swap = swapRepository.save(swap);
         
-        // 更新聊天室的 Swap ID
-        chatService.updateChatRoomSwapId(p.getId(), swap.getId());
-
-        // 發送電子郵件通知給提案者
-        emailNotificationService.sendProposalNotification(p, 
-                NotificationType.PROPOSAL_ACCEPTED, 
+        // 更新聊天室的 Swap ID、發送電子郵件通知給提案者：寫入 outbox，交易提交後非同步投遞
+        outboxService.linkChatRoomSwap(p.getId(), swap.getId());
+        outboxService.sendProposalNotification(p,
+                NotificationType.PROPOSAL_ACCEPTED,
                 p.getProposerId());
 
-        // Lock all involved listings
-        listing.setStatus(com.exchange.platform.entity.Listing.Status.LOCKED);
-        listingRepository.save(listing);
-        
-        for (ProposalItem item : p.getProposalItems()) {
-            if (item.getSide() == ProposalItem.Side.OFFERED) {
-                Listing proposerListing = item.getListing();
-                proposerListing.setStatus(Listing.Status.LOCKED);
-                listingRepository.save(proposerListing);
-            }
-        }
+        userCounterService.adjust(userId, UserCounterService.Counter.PENDING_PROPOSALS, -1);
+        userCounterService.adjust(swap.getAUserId(), UserCounterService.Counter.ACTIVE_SWAPS, 1);
+        userCounterService.adjust(swap.getBUserId(), UserCounterService.Counter.ACTIVE_SWAPS, 1);
+
+        supersedeCompeting(p.getId(), lockIds, userId);
 
         return toDTO(p);
     }
 
+    /**
+     * 刊登鎖定後，其他仍為 PENDING 且涉及這些刊登的提案已不可能成交：一次查出、一次批次 UPDATE 改為 SUPERSEDED，
+     * 提案者的通知各寫入一筆 outbox 事件，交易提交後由 OutboxDispatcher 投遞（接受者自己的提案不另通知）
+     */
+    private void supersedeCompeting(Long acceptedId, Set<Long> lockedListingIds, Long acceptorId) {
+        List<ProposalPartyView> competing = proposalRepository.findPartiesReferencingListings(
+                lockedListingIds, Proposal.Status.PENDING, acceptedId);
+        if (competing.isEmpty()) {
+            return;
+        }
+        int updated = proposalRepository.transitionStatuses(
+                competing.stream().map(ProposalPartyView::id).toList(),
+                Proposal.Status.PENDING, Proposal.Status.SUPERSEDED, LocalDateTime.now());
+
+        // 查詢與 UPDATE 之間可能有提案被其他請求拒絕：筆數不符時不知道哪些被更新，改為丟棄接收者的計數快取
+        boolean allUpdated = updated == competing.size();
+        Map<Long, Long> recipients = new LinkedHashMap<>();
+        for (ProposalPartyView party : competing) {
+            if (allUpdated) {
+                userCounterService.adjust(party.receiverId(), UserCounterService.Counter.PENDING_PROPOSALS, -1);
+            } else {
+                userCounterService.invalidate(party.receiverId());
+            }
+            if (!party.proposerId().equals(acceptorId)) {
+                recipients.put(party.id(), party.proposerId());
+            }
+        }
+        // 與其他提案通知相同走 outbox：投遞失敗會重試，交易回滾則一併消失
+        recipients.forEach((proposalId, proposerId) ->
+                outboxService.sendProposalNotification(proposalId, NotificationType.PROPOSAL_SUPERSEDED, proposerId));
+    }
+
     public ProposalDTO reject(Long proposalId, HttpSession session) {
         Long userId = (Long) session.getAttribute(SESSION_USER_ID);
         if (userId == null) throw new UnauthorizedException();
@@ -189,19 +236,41 @@ public class ProposalService {
         Listing listing = listingRepository.findById(p.getListingId()).orElseThrow(NotFoundException::new);
         if (!listing.getUserId().equals(userId)) throw new ForbiddenException();
 
-        p.setStatus(Proposal.Status.REJECTED);
-        return toDTO(proposalRepository.save(p));
+        // 與 accept 相同的條件式更新：已被接受 / 拒絕的提案不可再改
+        if (proposalRepository.transitionStatus(p.getId(), Proposal.Status.PENDING,
+                Proposal.Status.REJECTED, LocalDateTime.now()) != 1) {
+            throw new ConflictException();
+        }
+        userCounterService.adjust(userId, UserCounterService.Counter.PENDING_PROPOSALS, -1);
+        return toDTO(proposalRepository.findByIdWithItems(proposalId).orElseThrow(NotFoundException::new));
     }
 
     private ProposalDTO toDTO(Proposal p) {
+        return toDTO(p, userDisplayNameResolver.resolveAll(List.of(p.getProposerId(), p.getReceiverId())));
+    }
+
+    /**
+     * 一頁提案轉 DTO：雙方使用者名稱以 UserDisplayNameResolver 批次解析，不逐筆查詢
+     */
+    private List<ProposalDTO> toDTOs(List<Proposal> proposals) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (Proposal p : proposals) {
+            userIds.add(p.getProposerId());
+            userIds.add(p.getReceiverId());
+        }
+        Map<Long, String> displayNames = userDisplayNameResolver.resolveAll(userIds);
+        return proposals.stream().map(p -> toDTO(p, displayNames)).toList();
+    }
+
+    private ProposalDTO toDTO(Proposal p, Map<Long, String> displayNames) {
         // Separate items by side: OFFERED = proposer's items, REQUESTED = receiver's items
         List<ProposalDTO.ProposalItemDTO> proposerItems = p.getProposalItems().stream()
                 .filter(item -> item.getSide() == ProposalItem.Side.OFFERED)
                 .map(item -> {
                     Listing listing = item.getListing();
                     String display = listing.getCardName() + " - " + listing.getArtistName();
-                    String imageUrl = getFirstImageUrl(listing.getImagePaths());
-                    List<String> imageUrls = parseImageUrls(listing.getImagePaths());
+                    String imageUrl = listing.images().firstUrl();
+                    List<String> imageUrls = listing.images().urls();
                     return ProposalDTO.ProposalItemDTO.builder()
                             .itemId(item.getId())
                             .listingId(listing.getId())
@@ -218,8 +287,8 @@ public class ProposalService {
                 .map(item -> {
                     Listing listing = item.getListing();
                     String display = listing.getCardName() + " - " + listing.getArtistName();
-                    String imageUrl = getFirstImageUrl(listing.getImagePaths());
-                    List<String> imageUrls = parseImageUrls(listing.getImagePaths());
+                    String imageUrl = listing.images().firstUrl();
+                    List<String> imageUrls = listing.images().urls();
                     return ProposalDTO.ProposalItemDTO.builder()
                             .itemId(item.getId())
                             .listingId(listing.getId())
@@ -232,13 +301,8 @@ public class ProposalService {
                 .collect(Collectors.toList());
         
         // Get user display names
-        String proposerDisplayName = userRepository.findById(p.getProposerId())
-                .map(user -> user.getDisplayName())
-                .orElse("未知使用者");
-        
-        String receiverDisplayName = userRepository.findById(p.getReceiverId())
-                .map(user -> user.getDisplayName())
-                .orElse("未知使用者");
+        String proposerDisplayName = displayNames.getOrDefault(p.getProposerId(), UserDisplayNameResolver.UNKNOWN_USER);
+        String receiverDisplayName = displayNames.getOrDefault(p.getReceiverId(), UserDisplayNameResolver.UNKNOWN_USER);
         
         return ProposalDTO.builder()
                 .id(p.getId())
@@ -261,8 +325,8 @@ public class ProposalService {
         Long userId = (Long) session.getAttribute(SESSION_USER_ID);
         if (userId == null) throw new UnauthorizedException();
         Pageable pageable = PageRequest.of(toPageIndex(page), toPageSize(size), parseSort(sort));
-        Page<Proposal> pg = proposalRepository.findByProposerIdWithItems(userId, pageable);
-        return pg.stream().map(this::toDTO).toList();
+        Page<Long> ids = proposalRepository.findIdsByProposerId(userId, pageable);
+        return toDTOs(loadWithItemsInOrder(ids.getContent()));
     }
 
     @Transactional(readOnly = true)
@@ -270,15 +334,29 @@ public class ProposalService {
         Long userId = (Long) session.getAttribute(SESSION_USER_ID);
         if (userId == null) throw new UnauthorizedException();
         Pageable pageable = PageRequest.of(toPageIndex(page), toPageSize(size), parseSort(sort));
-        Page<Proposal> pg = proposalRepository.findByReceiverIdWithItems(userId, pageable);
-        return pg.stream().map(this::toDTO).toList();
+        Page<Long> ids = proposalRepository.findIdsByReceiverId(userId, pageable);
+        return toDTOs(loadWithItemsInOrder(ids.getContent()));
     }
 
     @Transactional(readOnly = true)
     public java.util.List<ProposalDTO> listByListing(Long listingId, Integer page, Integer size, String sort) {
         Pageable pageable = PageRequest.of(toPageIndex(page), toPageSize(size), parseSort(sort));
-        Page<Proposal> pg = proposalRepository.findByListingId(listingId, pageable);
-        return pg.stream().map(this::toDTO).toList();
+        Page<Long> ids = proposalRepository.findIdsByListingId(listingId, pageable);
+        return toDTOs(loadWithItemsInOrder(ids.getContent()));
+    }
+
+    /**
+     * 依分頁查詢取得的 ID 順序載入提案與明細（一次 FETCH JOIN，只涵蓋該頁）
+     */
+    private java.util.List<Proposal> loadWithItemsInOrder(java.util.List<Long> ids) {
+        if (ids.isEmpty()) {
+            return java.util.List.of();
+        }
+        java.util.Map<Long, Proposal> byId = new java.util.HashMap<>();
+        for (Proposal p : proposalRepository.findAllWithItemsByIdIn(ids)) {
+            byId.put(p.getId(), p);
+        }
+        return ids.stream().map(byId::get).filter(java.util.Objects::nonNull).toList();
     }
 
     private int toPageIndex(Integer page) {
@@ -305,58 +383,6 @@ public class ProposalService {
         return Sort.by(dir, prop);
     }
 
-    /**
-     * 從 imagePaths JSON 字串解析出第一張圖片的 URL
-     */
-    private String getFirstImageUrl(String imagePaths) {
-        if (imagePaths == null || imagePaths.trim().isEmpty()) {
-            return null;
-        }
-        try {
-            // 簡單的JSON反序列化，移除方括號和引號
-            String cleaned = imagePaths.replaceAll("[\\[\\]\"]", "");
-            if (cleaned.trim().isEmpty()) {
-                return null;
-            }
-            
-            // 取得第一個檔案名稱
-            String[] fileNames = cleaned.split(",");
-            if (fileNames.length > 0) {
-                String fileName = fileNames[0].trim();
-                return "/images/" + fileName;
-            }
-            return null;
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    /**
-     * 從 imagePaths JSON 字串解析出所有圖片的 URL
-     */
-    private List<String> parseImageUrls(String imagePaths) {
-        if (imagePaths == null || imagePaths.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        try {
-            // 簡單的JSON反序列化，移除方括號和引號
-            String cleaned = imagePaths.replaceAll("[\\[\\]\"]", "");
-            if (cleaned.trim().isEmpty()) {
-                return new ArrayList<>();
-            }
-            
-            // 將檔案名稱轉換為完整的URL路徑
-            return List.of(cleaned.split(","))
-                    .stream()
-                    .map(String::trim)
-                    .filter(fileName -> !fileName.isEmpty())
-                    .map(fileName -> "/images/" + fileName)
-                    .toList();
-        } catch (Exception e) {
-            return new ArrayList<>();
-        }
-    }
-
     public static class UnauthorizedException extends RuntimeException {}
     public static class NotFoundException extends RuntimeException {}
     public static class ForbiddenException extends RuntimeException {}
@@ -0,0 +1,203 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.entity.Listing;
+import com.exchange.platform.entity.ListingSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 關注搜尋的反向索引（percolator）：索引的是「查詢」，拿新刊登來比對
+ *
+ * 每筆關注搜尋只掛在一個錨點 token 下（最長的 token，通常最具鑑別度）。
+ * 新刊登進來時，把它所有 token 的每個前綴拿去查錨點表，只有錨點命中的關注搜尋才需要驗證；
+ * 成本取決於刊登本身的文字長度與命中數，與關注搜尋總數無關。
+ *
+ * 比對判定與 ListingSearchIndex 相同（ListingSearchIndex.containsPhrase）：任一欄位包含整個關鍵字（不分大小寫）。
+ * 錨點的選法也與 ListingSearchIndex.matchPhrase 挑候選的方式一致：關鍵字開頭的英數 token 可能落在刊登單字的中段
+ * （"ard" 對 "card"），有其他 token 時不拿它當錨點；只有它一個 token 時改掛在子字串錨點表，
+ * 以刊登 token 的所有子字串查詢。關鍵字依別名字典展開的每個變體各自掛錨點，任一變體符合即算命中。
+ *
+ * 資料由 SavedSearchService 在啟動時載入並隨新增 / 刪除維護，本身不存取資料庫。
+ */
+@Component
+@RequiredArgsConstructor
+public class SavedSearchPercolator {
+
+    private final ListingAliasDictionary listingAliasDictionary;
+
+    // 錨點 token -> 關注搜尋 ID（以刊登 token 的前綴查詢）
+    private final Map<String, Set<Long>> anchors = new ConcurrentHashMap<>();
+    // 可能落在單字中段的錨點 token -> 關注搜尋 ID（以刊登 token 的子字串查詢）
+    private final Map<String, Set<Long>> substringAnchors = new ConcurrentHashMap<>();
+    // 關注搜尋 ID -> 已正規化的查詢
+    private final Map<Long, Query> queries = new ConcurrentHashMap<>();
+    // 使用者 -> 其關注搜尋 ID
+    private final Map<Long, Set<Long>> byUser = new ConcurrentHashMap<>();
+
+    /**
+     * 新增或取代一筆關注搜尋；關鍵字沒有可索引的 token 時回傳 false（不會被索引）
+     */
+    public synchronized boolean put(Long id, Long userId, String query) {
+        removeInternal(id);
+        List<Variant> variants = new ArrayList<>();
+        for (String phrase : listingAliasDictionary.expand(ListingSearchIndex.normalize(query).strip())) {
+            Set<String> terms = ListingSearchIndex.tokenize(phrase);
+            if (terms.isEmpty()) continue;
+            // 開頭 token 可能接在刊登單字的中段，不保證是刊登 token 的前綴
+            String head = ListingSearchIndex.startsMidWord(phrase) ? terms.iterator().next() : null;
+            String anchor = null;
+            for (String term : terms) {
+                if (term.equals(head) && terms.size() > 1) continue;
+                if (anchor == null || term.length() > anchor.length()) {
+                    anchor = term;
+                }
+            }
+            variants.add(new Variant(phrase, anchor, anchor.equals(head)));
+        }
+        if (variants.isEmpty()) {
+            return false;
+        }
+        queries.put(id, new Query(id, userId, query, variants));
+        byUser.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(id);
+        for (Variant variant : variants) {
+            anchorsOf(variant).computeIfAbsent(variant.anchor(), k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        return true;
+    }
+
+    public synchronized void remove(Long id) {
+        removeInternal(id);
+    }
+
+    public int size() {
+        return queries.size();
+    }
+
+    /**
+     * 使用者目前的關注關鍵字（原樣）
+     */
+    public List<String> queriesOf(Long userId) {
+        Set<Long> ids = byUser.get(userId);
+        if (ids == null) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>();
+        for (Long id : ids) {
+            Query q = queries.get(id);
+            if (q != null) {
+                result.add(q.query());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 找出符合此刊登的關注搜尋；每位使用者只回傳一筆，不含刊登擁有者本人，且只比對可交換的刊登
+     */
+    public List<Match> match(ListingSnapshot listing) {
+        if (listing == null || listing.id() == null || listing.status() != Listing.Status.AVAILABLE) {
+            return List.of();
+        }
+        String[] fields = {
+                ListingSearchIndex.normalize(listing.cardName()),
+                ListingSearchIndex.normalize(listing.artistName()),
+                ListingSearchIndex.normalize(listing.groupName()),
+                ListingSearchIndex.normalize(listing.description())
+        };
+
+        // 刊登 token 的所有前綴查 anchors，所有子字串查 substringAnchors
+        Set<String> prefixes = new HashSet<>();
+        Set<String> substrings = new HashSet<>();
+        boolean needSubstrings = !substringAnchors.isEmpty();
+        for (String field : fields) {
+            for (String token : ListingSearchIndex.tokenize(field)) {
+                for (int start = 0; start < token.length(); start += Character.charCount(token.codePointAt(start))) {
+                    if (start > 0 && !needSubstrings) break;
+                    int end = start;
+                    while (end < token.length()) {
+                        end += Character.charCount(token.codePointAt(end));
+                        if (start == 0) {
+                            prefixes.add(token.substring(0, end));
+                        }
+                        if (needSubstrings) {
+                            substrings.add(token.substring(start, end));
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<Long, Match> matched = new LinkedHashMap<>();
+        collect(anchors, prefixes, listing, fields, matched);
+        collect(substringAnchors, substrings, listing, fields, matched);
+        return new ArrayList<>(matched.values());
+    }
+
+    private void collect(Map<String, Set<Long>> anchorTable, Set<String> keys, ListingSnapshot listing,
+                         String[] fields, Map<Long, Match> matched) {
+        for (String key : keys) {
+            Set<Long> ids = anchorTable.get(key);
+            if (ids == null) continue;
+            for (Long id : ids) {
+                Query q = queries.get(id);
+                if (q == null || q.userId().equals(listing.userId()) || matched.containsKey(q.userId())) continue;
+                if (q.matches(fields)) {
+                    matched.put(q.userId(), new Match(q.id(), q.userId(), q.query(), listing.id(), listing.cardName()));
+                }
+            }
+        }
+    }
+
+    private Map<String, Set<Long>> anchorsOf(Variant variant) {
+        return variant.midWord() ? substringAnchors : anchors;
+    }
+
+    private void removeInternal(Long id) {
+        Query old = queries.remove(id);
+        if (old == null) {
+            return;
+        }
+        Set<Long> own = byUser.get(old.userId());
+        if (own != null) {
+            own.remove(id);
+            if (own.isEmpty()) {
+                byUser.remove(old.userId());
+            }
+        }
+        for (Variant variant : old.variants()) {
+            Map<String, Set<Long>> anchorTable = anchorsOf(variant);
+            Set<Long> ids = anchorTable.get(variant.anchor());
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    anchorTable.remove(variant.anchor());
+                }
+            }
+        }
+    }
+
+    public record Match(Long savedSearchId, Long userId, String query, Long listingId, String cardName) {}
+
+    private record Query(Long id, Long userId, String query, List<Variant> variants) {
+
+        boolean matches(String[] fields) {
+            for (Variant variant : variants) {
+                if (ListingSearchIndex.containsPhrase(fields, variant.phrase())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // midWord：錨點是可能落在單字中段的開頭 token，掛在 substringAnchors
+    private record Variant(String phrase, String anchor, boolean midWord) {}
+}
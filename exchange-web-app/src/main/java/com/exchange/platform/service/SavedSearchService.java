@@ -0,0 +1,159 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.dto.CreateSavedSearchRequest;
+import com.exchange.platform.dto.SavedSearchDTO;
+import com.exchange.platform.entity.ListingCatalogLoadedEvent;
+import com.exchange.platform.entity.SavedSearch;
+import com.exchange.platform.entity.SavedSearchChangedEvent;
+import com.exchange.platform.repository.SavedSearchRepository;
+import jakarta.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 關注搜尋管理
+ * 新增 / 刪除時立即更新 SavedSearchPercolator，交易回滾時再還原（與刊登索引的處理方式一致），
+ * 並發佈 SavedSearchChangedEvent 供交換循環引擎重新計算該使用者的需求
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class SavedSearchService {
+
+    // 每位使用者最多可保存的關注搜尋數
+    public static final int MAX_PER_USER = 50;
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String SESSION_USER_ID = "userId";
+
+    private final SavedSearchRepository savedSearchRepository;
+    private final SavedSearchPercolator savedSearchPercolator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 刊登目錄載入後才載入關注搜尋：依賴關注搜尋的結構（交換循環引擎）需要完整的搜尋索引
+     */
+    @EventListener(ListingCatalogLoadedEvent.class)
+    @Transactional(readOnly = true)
+    public void loadPercolator() {
+        long start = System.currentTimeMillis();
+        int pageIndex = 0;
+        Page<SavedSearch> page;
+        Set<Long> userIds = new LinkedHashSet<>();
+        do {
+            page = savedSearchRepository.findAll(PageRequest.of(pageIndex++, BATCH_SIZE, Sort.by("id")));
+            for (SavedSearch s : page.getContent()) {
+                savedSearchPercolator.put(s.getId(), s.getUserId(), s.getQuery());
+                userIds.add(s.getUserId());
+            }
+        } while (page.hasNext());
+        for (Long userId : userIds) {
+            eventPublisher.publishEvent(new SavedSearchChangedEvent(userId));
+        }
+        log.info("Saved search percolator loaded: {} queries in {} ms",
+                savedSearchPercolator.size(), System.currentTimeMillis() - start);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SavedSearchDTO> listMine(HttpSession session) {
+        Long userId = requireUser(session);
+        return savedSearchRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    public SavedSearchDTO create(CreateSavedSearchRequest request, HttpSession session) {
+        Long userId = requireUser(session);
+        String query = request.getQuery().strip();
+        if (ListingSearchIndex.tokenize(ListingSearchIndex.normalize(query)).isEmpty()) {
+            throw new InvalidQueryException();
+        }
+
+        List<SavedSearch> existing = savedSearchRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        if (existing.size() >= MAX_PER_USER) {
+            throw new ConflictException();
+        }
+        for (SavedSearch s : existing) {
+            if (s.getQuery().equalsIgnoreCase(query)) {
+                throw new ConflictException();
+            }
+        }
+
+        SavedSearch saved = savedSearchRepository.save(SavedSearch.builder()
+                .userId(userId)
+                .query(query)
+                .build());
+        savedSearchPercolator.put(saved.getId(), userId, query);
+        eventPublisher.publishEvent(new SavedSearchChangedEvent(userId));
+        onRollback(() -> {
+            savedSearchPercolator.remove(saved.getId());
+            eventPublisher.publishEvent(new SavedSearchChangedEvent(userId));
+        });
+        return toDTO(saved);
+    }
+
+    public void delete(Long id, HttpSession session) {
+        Long userId = requireUser(session);
+        SavedSearch saved = savedSearchRepository.findById(id).orElseThrow(NotFoundException::new);
+        if (!saved.getUserId().equals(userId)) {
+            throw new ForbiddenException();
+        }
+        savedSearchRepository.delete(saved);
+        savedSearchPercolator.remove(id);
+        eventPublisher.publishEvent(new SavedSearchChangedEvent(userId));
+        onRollback(() -> {
+            savedSearchPercolator.put(saved.getId(), saved.getUserId(), saved.getQuery());
+            eventPublisher.publishEvent(new SavedSearchChangedEvent(userId));
+        });
+    }
+
+    private void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private Long requireUser(HttpSession session) {
+        Long userId = (Long) session.getAttribute(SESSION_USER_ID);
+        if (userId == null) {
+            throw new UnauthorizedException();
+        }
+        return userId;
+    }
+
+    private SavedSearchDTO toDTO(SavedSearch s) {
+        return SavedSearchDTO.builder()
+                .id(s.getId())
+                .query(s.getQuery())
+                .createdAt(s.getCreatedAt())
+                .build();
+    }
+
+    public static class UnauthorizedException extends RuntimeException {}
+    public static class NotFoundException extends RuntimeException {}
+    public static class ForbiddenException extends RuntimeException {}
+    public static class ConflictException extends RuntimeException {}
+    public static class InvalidQueryException extends RuntimeException {}
+}
@@ -0,0 +1,190 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.dto.TopQueryDTO;
+import com.exchange.platform.entity.ListingCatalogLoadedEvent;
+import com.exchange.platform.entity.SearchQueryCount;
+import com.exchange.platform.entity.SearchText;
+import com.exchange.platform.repository.SearchQueryCountRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 搜尋關鍵字統計（熱門關鍵字）
+ *
+ * 每次搜尋只在記憶體累加：count-min sketch 估計任一關鍵字的次數（固定記憶體，可能略為高估），
+ * 另保留估計次數最高的 TOP_CAPACITY 個關鍵字作為熱門候選，不需為每個出現過的關鍵字保存計數。
+ *
+ * 前 WARM_SIZE 名交給 ListingSearchIndex 預熱（維護其符合結果，搜尋時不需再查倒排索引）：
+ * 目錄載入完成時以上次保存的排名預熱，之後每分鐘依最新排名重新預熱並覆寫 search_query_counts。
+ */
+@Component
+@Slf4j
+public class SearchQueryAnalytics {
+
+    // count-min sketch 大小：誤差約 e / WIDTH * 總次數，錯誤機率約 e^-DEPTH
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 4096;
+    // 保留的熱門候選數
+    private static final int TOP_CAPACITY = 100;
+    // 預熱的關鍵字數
+    public static final int WARM_SIZE = 20;
+    private static final int MAX_QUERY_LENGTH = 100;
+    private static final long REFRESH_INTERVAL_MS = 60_000;
+
+    private final ListingSearchIndex listingSearchIndex;
+    private final SearchQueryCountRepository searchQueryCountRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // 以下由 this 保護
+    private final long[][] sketch = new long[DEPTH][WIDTH];
+    // 熱門候選：關鍵字 -> 估計次數
+    private final Map<String, Long> top = new HashMap<>();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "search-query-analytics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SearchQueryAnalytics(ListingSearchIndex listingSearchIndex,
+                                SearchQueryCountRepository searchQueryCountRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.listingSearchIndex = listingSearchIndex;
+        this.searchQueryCountRepository = searchQueryCountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener
+    public void onCatalogLoaded(ListingCatalogLoadedEvent event) {
+        List<SearchQueryCount> saved = searchQueryCountRepository.findAll();
+        synchronized (this) {
+            for (SearchQueryCount row : saved) {
+                add(row.getQuery(), row.getHits());
+            }
+        }
+        warm();
+        executor.scheduleWithFixedDelay(this::refreshQuietly, REFRESH_INTERVAL_MS, REFRESH_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+        log.info("Search query analytics started: {} saved queries, {} warmed", saved.size(),
+                listingSearchIndex.warmQueries().size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 記錄一次搜尋；空白或過長的關鍵字略過
+     */
+    public void record(String q) {
+        String query = normalize(q);
+        if (query.isEmpty() || query.length() > MAX_QUERY_LENGTH) {
+            return;
+        }
+        synchronized (this) {
+            add(query, 1);
+        }
+    }
+
+    /**
+     * 估計次數最高的前 limit 個關鍵字
+     */
+    public synchronized List<TopQueryDTO> top(int limit) {
+        return top.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(e -> new TopQueryDTO(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    /**
+     * 以目前前 WARM_SIZE 名預熱搜尋索引；背景執行緒定期呼叫，也可直接呼叫（測試用）
+     */
+    public void warm() {
+        listingSearchIndex.warm(top(WARM_SIZE).stream().map(TopQueryDTO::getQuery).toList());
+    }
+
+    private void refreshQuietly() {
+        try {
+            warm();
+            save();
+        } catch (Exception e) {
+            log.error("Search query analytics refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // 以目前的熱門候選整批覆寫 search_query_counts
+    private void save() {
+        LocalDateTime now = LocalDateTime.now();
+        List<SearchQueryCount> rows = new ArrayList<>();
+        for (TopQueryDTO q : top(TOP_CAPACITY)) {
+            rows.add(SearchQueryCount.builder().query(q.getQuery()).hits(q.getCount()).updatedAt(now).build());
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            searchQueryCountRepository.deleteAllInBatch();
+            searchQueryCountRepository.saveAll(rows);
+        });
+    }
+
+    // 呼叫端需持有鎖
+    private void add(String query, long count) {
+        long estimate = Long.MAX_VALUE;
+        long h = hash(query);
+        for (int row = 0; row < DEPTH; row++) {
+            int column = column(h, row);
+            sketch[row][column] += count;
+            estimate = Math.min(estimate, sketch[row][column]);
+        }
+
+        if (top.containsKey(query) || top.size() < TOP_CAPACITY) {
+            top.put(query, estimate);
+            return;
+        }
+        // 候選已滿：估計次數超過目前最小者才取代
+        Map.Entry<String, Long> min = top.entrySet().stream()
+                .min(Map.Entry.<String, Long>comparingByValue()
+                        .thenComparing(Map.Entry::getKey, Comparator.reverseOrder()))
+                .orElseThrow();
+        if (estimate > min.getValue()) {
+            top.remove(min.getKey());
+            top.put(query, estimate);
+        }
+    }
+
+    static String normalize(String q) {
+        return q == null ? "" : SearchText.normalize(q.strip());
+    }
+
+    private static long hash(String query) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < query.length(); i++) {
+            h = 31 * h + query.charAt(i);
+        }
+        return h;
+    }
+
+    // 每列以不同的種子混合後取欄位（splitmix64）
+    private static int column(long h, int row) {
+        long z = h + (row + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (int) Math.floorMod(z, (long) WIDTH);
+    }
+}
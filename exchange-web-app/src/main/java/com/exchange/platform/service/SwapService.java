@@ -22,7 +22,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -39,6 +38,7 @@ public class SwapService {
     private final com.exchange.platform.repository.UserRepository userRepository;
     private final ChatService chatService;
     private final EmailNotificationService emailNotificationService;
+    private final UserCounterService userCounterService;
     private static final String SESSION_USER_ID = "userId";
 
     @Transactional(readOnly = true)
@@ -81,6 +81,8 @@ public class SwapService {
                 if (swap.getCompletedAt() == null) swap.setCompletedAt(java.time.LocalDateTime.now());
                 // Set chat room to read-only (不會拋出異常)
                 chatService.setReadOnly(swap.getId());
+                userCounterService.adjust(swap.getAUserId(), UserCounterService.Counter.ACTIVE_SWAPS, -1);
+                userCounterService.adjust(swap.getBUserId(), UserCounterService.Counter.ACTIVE_SWAPS, -1);
             }
         }
 
@@ -110,8 +112,8 @@ public class SwapService {
                         .map(item -> {
                             Listing listing = item.getListing();
                             String display = listing.getCardName() + " - " + listing.getArtistName();
-                            String imageUrl = getFirstImageUrl(listing.getImagePaths());
-                            List<String> imageUrls = parseImageUrls(listing.getImagePaths());
+                            String imageUrl = listing.images().firstUrl();
+                            List<String> imageUrls = listing.images().urls();
                             return ProposalDTO.ProposalItemDTO.builder()
                                     .itemId(item.getId())
                                     .listingId(listing.getId())
@@ -128,8 +130,8 @@ public class SwapService {
                         .map(item -> {
                             Listing listing = item.getListing();
                             String display = listing.getCardName() + " - " + listing.getArtistName();
-                            String imageUrl = getFirstImageUrl(listing.getImagePaths());
-                            List<String> imageUrls = parseImageUrls(listing.getImagePaths());
+                            String imageUrl = listing.images().firstUrl();
+                            List<String> imageUrls = listing.images().urls();
                             return ProposalDTO.ProposalItemDTO.builder()
                                     .itemId(item.getId())
                                     .listingId(listing.getId())
@@ -242,58 +244,6 @@ public class SwapService {
         return Sort.by(dir, prop);
     }
 
-    /**
-     * 從 imagePaths JSON 字串解析出第一張圖片的 URL
-     */
-    private String getFirstImageUrl(String imagePaths) {
-        if (imagePaths == null || imagePaths.trim().isEmpty()) {
-            return null;
-        }
-        try {
-            // 簡單的JSON反序列化，移除方括號和引號
-            String cleaned = imagePaths.replaceAll("[\\[\\]\"]", "");
-            if (cleaned.trim().isEmpty()) {
-                return null;
-            }
-            
-            // 取得第一個檔案名稱
-            String[] fileNames = cleaned.split(",");
-            if (fileNames.length > 0) {
-                String fileName = fileNames[0].trim();
-                return "/images/" + fileName;
-            }
-            return null;
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    /**
-     * 從 imagePaths JSON 字串解析出所有圖片的 URL
-     */
-    private List<String> parseImageUrls(String imagePaths) {
-        if (imagePaths == null || imagePaths.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        try {
-            // 簡單的JSON反序列化，移除方括號和引號
-            String cleaned = imagePaths.replaceAll("[\\[\\]\"]", "");
-            if (cleaned.trim().isEmpty()) {
-                return new ArrayList<>();
-            }
-            
-            // 將檔案名稱轉換為完整的URL路徑
-            return List.of(cleaned.split(","))
-                    .stream()
-                    .map(String::trim)
-                    .filter(fileName -> !fileName.isEmpty())
-                    .map(fileName -> "/images/" + fileName)
-                    .toList();
-        } catch (Exception e) {
-            return new ArrayList<>();
-        }
-    }
-
     /**
      * 設置面交資訊
      */
@@ -0,0 +1,315 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.entity.Listing;
+import com.exchange.platform.entity.ListingChangedEvent;
+import com.exchange.platform.entity.ListingSnapshot;
+import com.exchange.platform.entity.SavedSearchChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 多方交換循環引擎
+ *
+ * 以「想要」關係建圖：使用者 A 的關注搜尋符合 B 的可交換刊登，就有一條 A -> B 的邊。
+ * A -> B -> C -> A 這樣的循環代表三人各自拿到想要的卡，可作為多方交換建議。
+ *
+ * 圖由 ListingChangedEvent（刊登新增 / 異動 / 刪除）與 SavedSearchChangedEvent（關注搜尋異動）增量維護；
+ * 邊有變動的使用者標記為 dirty，由背景執行緒只針對這些使用者重新尋找長度 3~4 的循環，
+ * 其餘使用者的循環不受影響、直接保留，不需每次從頭計算整張圖。
+ *
+ * 本身不存取資料庫；建議中的刊登在讀取時由 TradeCycleService 再驗證一次。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TradeCycleEngine {
+
+    public static final int MIN_CYCLE_LENGTH = 3;
+    public static final int MAX_CYCLE_LENGTH = 4;
+    // 每位使用者最多保留的循環數
+    private static final int MAX_CYCLES_PER_USER = 20;
+    // 每位使用者一次 DFS 最多展開的邊數，避免熱門使用者拖慢背景執行緒
+    private static final int SEARCH_BUDGET = 20_000;
+    // 異動後延遲多久重新計算（合併短時間內的多筆異動）
+    private static final long REFRESH_DELAY_MS = 1000;
+
+    private final SavedSearchPercolator savedSearchPercolator;
+    private final ListingSearchIndex listingSearchIndex;
+
+    // listing ID -> 擁有者與想要它的使用者（只保存可交換的刊登）
+    private final Map<Long, Node> listings = new HashMap<>();
+    // 使用者 -> 想要的 listing IDs
+    private final Map<Long, Set<Long>> wants = new HashMap<>();
+    // 想要邊：使用者 -> 擁有者 -> 促成這條邊的 listing IDs
+    private final Map<Long, Map<Long, Set<Long>>> edges = new HashMap<>();
+    // 使用者 -> 經過他的循環
+    private final Map<Long, List<Cycle>> cyclesByUser = new HashMap<>();
+    // 邊有異動、需要重新尋找循環的使用者
+    private final Set<Long> dirtyUsers = new LinkedHashSet<>();
+
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "trade-cycle-engine");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void onListingChanged(ListingChangedEvent event) {
+        Long id = event.listingId();
+        if (id == null) {
+            return;
+        }
+        ListingSnapshot after = event.after();
+        Set<Long> wanters = new HashSet<>();
+        if (after != null && after.status() == Listing.Status.AVAILABLE) {
+            for (SavedSearchPercolator.Match match : savedSearchPercolator.match(after)) {
+                wanters.add(match.userId());
+            }
+        }
+        synchronized (this) {
+            removeListing(id);
+            if (after != null && after.status() == Listing.Status.AVAILABLE) {
+                listings.put(id, new Node(after.userId(), new HashSet<>()));
+                for (Long wanter : wanters) {
+                    addWant(wanter, id);
+                }
+            }
+        }
+        scheduleRefresh();
+    }
+
+    @EventListener
+    public void onSavedSearchChanged(SavedSearchChangedEvent event) {
+        Long userId = event.userId();
+        Set<Long> wanted = new HashSet<>();
+        for (String query : savedSearchPercolator.queriesOf(userId)) {
+            for (ListingSnapshot s : listingSearchIndex.matchAll(query,
+                    s -> s.status() == Listing.Status.AVAILABLE && !userId.equals(s.userId()))) {
+                wanted.add(s.id());
+            }
+        }
+        synchronized (this) {
+            Set<Long> old = new HashSet<>(wants.getOrDefault(userId, Set.of()));
+            for (Long listingId : old) {
+                if (!wanted.contains(listingId)) {
+                    removeWant(userId, listingId);
+                }
+            }
+            for (Long listingId : wanted) {
+                if (!old.contains(listingId) && listings.containsKey(listingId)) {
+                    addWant(userId, listingId);
+                }
+            }
+        }
+        scheduleRefresh();
+    }
+
+    /**
+     * 取得經過此使用者的循環（短的在前）
+     */
+    public synchronized List<Cycle> cyclesFor(Long userId) {
+        return List.copyOf(cyclesByUser.getOrDefault(userId, List.of()));
+    }
+
+    /**
+     * 針對 dirty 使用者重新尋找循環；背景執行緒定期呼叫，也可直接呼叫（測試用）
+     */
+    public synchronized void refresh() {
+        if (dirtyUsers.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Set<Long> dirty = new LinkedHashSet<>(dirtyUsers);
+        dirtyUsers.clear();
+
+        // 經過 dirty 使用者的循環可能已失效，先全部移除
+        for (Long userId : dirty) {
+            List<Cycle> stale = cyclesByUser.remove(userId);
+            if (stale == null) continue;
+            for (Cycle cycle : stale) {
+                for (Long member : cycle.users()) {
+                    List<Cycle> list = cyclesByUser.get(member);
+                    if (list != null) {
+                        list.remove(cycle);
+                        if (list.isEmpty()) {
+                            cyclesByUser.remove(member);
+                        }
+                    }
+                }
+            }
+        }
+
+        // 只從 dirty 使用者出發重新尋找；其他循環不含異動的邊，保持有效
+        int found = 0;
+        for (Long userId : dirty) {
+            List<List<Long>> paths = new ArrayList<>();
+            List<Long> path = new ArrayList<>();
+            path.add(userId);
+            findCycles(userId, userId, path, new int[] {SEARCH_BUDGET}, paths);
+            for (List<Long> users : paths) {
+                if (addCycle(toCycle(users))) {
+                    found++;
+                }
+            }
+        }
+        log.debug("Trade cycles refreshed for {} users: {} new cycles in {} ms",
+                dirty.size(), found, System.currentTimeMillis() - start);
+    }
+
+    private void scheduleRefresh() {
+        boolean hasDirty;
+        synchronized (this) {
+            hasDirty = !dirtyUsers.isEmpty();
+        }
+        if (hasDirty && refreshScheduled.compareAndSet(false, true)) {
+            executor.schedule(() -> {
+                refreshScheduled.set(false);
+                try {
+                    refresh();
+                } catch (Exception e) {
+                    log.error("Trade cycle refresh failed: {}", e.getMessage(), e);
+                }
+            }, REFRESH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // === 圖維護（呼叫端需持有鎖） ===
+
+    private void removeListing(Long listingId) {
+        Node node = listings.get(listingId);
+        if (node == null) {
+            return;
+        }
+        for (Long wanter : new ArrayList<>(node.wanters())) {
+            removeWant(wanter, listingId);
+        }
+        listings.remove(listingId);
+    }
+
+    private void addWant(Long wanter, Long listingId) {
+        Node node = listings.get(listingId);
+        if (node == null || node.owner().equals(wanter) || !node.wanters().add(wanter)) {
+            return;
+        }
+        wants.computeIfAbsent(wanter, k -> new HashSet<>()).add(listingId);
+        edges.computeIfAbsent(wanter, k -> new HashMap<>())
+                .computeIfAbsent(node.owner(), k -> new HashSet<>())
+                .add(listingId);
+        dirtyUsers.add(wanter);
+        dirtyUsers.add(node.owner());
+    }
+
+    private void removeWant(Long wanter, Long listingId) {
+        Node node = listings.get(listingId);
+        if (node != null) {
+            node.wanters().remove(wanter);
+        }
+        Set<Long> wanted = wants.get(wanter);
+        if (wanted != null) {
+            wanted.remove(listingId);
+            if (wanted.isEmpty()) {
+                wants.remove(wanter);
+            }
+        }
+        if (node == null) {
+            return;
+        }
+        Map<Long, Set<Long>> out = edges.get(wanter);
+        Set<Long> via = out != null ? out.get(node.owner()) : null;
+        if (via != null && via.remove(listingId)) {
+            if (via.isEmpty()) {
+                out.remove(node.owner());
+                if (out.isEmpty()) {
+                    edges.remove(wanter);
+                }
+            }
+            dirtyUsers.add(wanter);
+            dirtyUsers.add(node.owner());
+        }
+    }
+
+    // === 循環搜尋（呼叫端需持有鎖） ===
+
+    private void findCycles(Long start, Long current, List<Long> path, int[] budget, List<List<Long>> out) {
+        for (Long next : edges.getOrDefault(current, Map.of()).keySet()) {
+            if (--budget[0] < 0) {
+                return;
+            }
+            if (next.equals(start)) {
+                if (path.size() >= MIN_CYCLE_LENGTH) {
+                    out.add(new ArrayList<>(path));
+                }
+                continue;
+            }
+            if (path.size() >= MAX_CYCLE_LENGTH || path.contains(next)) {
+                continue;
+            }
+            path.add(next);
+            findCycles(start, next, path, budget, out);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    /**
+     * 旋轉成以最小使用者 ID 開頭的標準形式，並為每條邊挑一張刊登
+     */
+    private Cycle toCycle(List<Long> users) {
+        int min = users.indexOf(Collections.min(users));
+        List<Long> rotated = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            rotated.add(users.get((min + i) % users.size()));
+        }
+        List<Long> listingIds = new ArrayList<>(rotated.size());
+        for (int i = 0; i < rotated.size(); i++) {
+            Long wanter = rotated.get(i);
+            Long owner = rotated.get((i + 1) % rotated.size());
+            listingIds.add(Collections.min(edges.get(wanter).get(owner)));
+        }
+        return new Cycle(List.copyOf(rotated), List.copyOf(listingIds));
+    }
+
+    private boolean addCycle(Cycle cycle) {
+        for (Long member : cycle.users()) {
+            List<Cycle> list = cyclesByUser.get(member);
+            if (list != null && (list.contains(cycle) || list.size() >= MAX_CYCLES_PER_USER)) {
+                return false;
+            }
+        }
+        for (Long member : cycle.users()) {
+            List<Cycle> list = cyclesByUser.computeIfAbsent(member, k -> new ArrayList<>());
+            list.add(cycle);
+            list.sort(Comparator.comparingInt(c -> c.users().size()));
+        }
+        return true;
+    }
+
+    /**
+     * 一個交換循環：users.get(i) 從 users.get(i + 1)（最後一位從第一位）取得 listingIds.get(i)
+     */
+    public record Cycle(List<Long> users, List<Long> listingIds) {}
+
+    private record Node(Long owner, Set<Long> wanters) {}
+}
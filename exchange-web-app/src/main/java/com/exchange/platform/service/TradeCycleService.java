@@ -0,0 +1,92 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.dto.TradeCycleDTO;
+import com.exchange.platform.entity.Listing;
+import com.exchange.platform.repository.ListingRepository;
+import jakarta.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 多方交換建議
+ * 循環由 TradeCycleEngine 在背景維護；這裡只把目前使用者的循環轉成 DTO，
+ * 所有刊登一次 findAllById 載入並再驗證一次（仍可交換、擁有者未變），過期的循環直接略過
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TradeCycleService {
+
+    private static final String SESSION_USER_ID = "userId";
+
+    private final TradeCycleEngine tradeCycleEngine;
+    private final ListingRepository listingRepository;
+    private final UserDisplayNameResolver userDisplayNameResolver;
+
+    public List<TradeCycleDTO> suggestions(HttpSession session) {
+        Long userId = (Long) session.getAttribute(SESSION_USER_ID);
+        if (userId == null) {
+            throw new UnauthorizedException();
+        }
+
+        List<TradeCycleEngine.Cycle> cycles = tradeCycleEngine.cyclesFor(userId);
+        if (cycles.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> listingIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (TradeCycleEngine.Cycle cycle : cycles) {
+            listingIds.addAll(cycle.listingIds());
+            userIds.addAll(cycle.users());
+        }
+        Map<Long, Listing> listings = listingRepository.findAllById(listingIds).stream()
+                .collect(Collectors.toMap(Listing::getId, Function.identity()));
+        Map<Long, String> names = userDisplayNameResolver.resolveAll(userIds);
+
+        List<TradeCycleDTO> result = new ArrayList<>();
+        for (TradeCycleEngine.Cycle cycle : cycles) {
+            TradeCycleDTO dto = toDTO(cycle, listings, names);
+            if (dto != null) {
+                result.add(dto);
+            }
+        }
+        return result;
+    }
+
+    private TradeCycleDTO toDTO(TradeCycleEngine.Cycle cycle, Map<Long, Listing> listings, Map<Long, String> names) {
+        List<Long> users = cycle.users();
+        List<TradeCycleDTO.Leg> legs = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            Long receiver = users.get(i);
+            Long giver = users.get((i + 1) % users.size());
+            Listing listing = listings.get(cycle.listingIds().get(i));
+            if (listing == null || listing.getStatus() != Listing.Status.AVAILABLE || !giver.equals(listing.getUserId())) {
+                return null;
+            }
+            legs.add(TradeCycleDTO.Leg.builder()
+                    .giverId(giver)
+                    .giverDisplayName(names.getOrDefault(giver, UserDisplayNameResolver.UNKNOWN_USER))
+                    .receiverId(receiver)
+                    .receiverDisplayName(names.getOrDefault(receiver, UserDisplayNameResolver.UNKNOWN_USER))
+                    .listingId(listing.getId())
+                    .cardName(listing.getCardName())
+                    .coverImageUrl(listing.images().firstUrl())
+                    .build());
+        }
+        return TradeCycleDTO.builder()
+                .size(users.size())
+                .legs(legs)
+                .build();
+    }
+
+    public static class UnauthorizedException extends RuntimeException {}
+}
@@ -0,0 +1,179 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.dto.UserCountersDTO;
+import com.exchange.platform.entity.Proposal;
+import com.exchange.platform.entity.Swap;
+import com.exchange.platform.repository.ChatMessageRepository;
+import com.exchange.platform.repository.ProposalRepository;
+import com.exchange.platform.repository.SwapRepository;
+import jakarta.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 個人計數（收到的待回覆提案、進行中的交換、未讀訊息）
+ *
+ * 第一次讀取時以三個 COUNT 查詢載入，之後保存在有上限的 LRU 快取；
+ * ProposalService / SwapService / ChatService 以 adjust() 回報增減，交易提交後才套用（回滾不影響快取）。
+ * 寫入交易從呼叫 adjust() 到結束之間記為進行中：這段期間（特別是已提交、尚未套用增減時）載入的 COUNT
+ * 可能已包含該筆寫入，結果只回傳不放入快取，避免同一筆增減被計算兩次。
+ * 未經這些服務的異動（例如直接修改資料庫）由 TTL_MS 到期後重新計數修正。
+ */
+@Service
+@RequiredArgsConstructor
+public class UserCounterService {
+
+    private static final int MAX_ENTRIES = 10_000;
+    private static final long TTL_MS = 5 * 60_000;
+    static final List<Swap.Status> ACTIVE_SWAP_STATUSES = List.of(Swap.Status.PENDING, Swap.Status.IN_PROGRESS);
+    private static final String SESSION_USER_ID = "userId";
+
+    private final ProposalRepository proposalRepository;
+    private final SwapRepository swapRepository;
+    private final ChatMessageRepository chatMessageRepository;
+
+    public enum Counter { PENDING_PROPOSALS, ACTIVE_SWAPS, UNREAD_MESSAGES }
+
+    // 以下由 cache 保護
+    private final Map<Long, Entry> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    // 使用者 -> 已呼叫 adjust() 但交易尚未結束的寫入數（筆數歸零即移除，大小受同時進行的交易數限制）
+    private final Map<Long, Integer> inFlight = new HashMap<>();
+
+    public UserCountersDTO get(HttpSession session) {
+        Long userId = (Long) session.getAttribute(SESSION_USER_ID);
+        if (userId == null) throw new UnauthorizedException();
+        return get(userId);
+    }
+
+    public UserCountersDTO get(Long userId) {
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(userId);
+            if (entry != null && entry.loaded && System.currentTimeMillis() - entry.loadedAt < TTL_MS) {
+                return entry.toDTO();
+            }
+            // 載入期間若有增減，查詢結果可能已過時：標記為 stale，不放入快取
+            entry = new Entry();
+            cache.put(userId, entry);
+        }
+
+        long pending = proposalRepository.countByReceiverIdAndStatus(userId, Proposal.Status.PENDING);
+        long swaps = swapRepository.countByUserIdAndStatusIn(userId, ACTIVE_SWAP_STATUSES);
+        long unread = chatMessageRepository.countUnreadMessagesForUser(userId);
+
+        synchronized (cache) {
+            // 載入期間有增減已套用（stale），或仍有已呼叫 adjust() 的交易未結束：結果可能與之後的增減重複，不快取
+            if (cache.get(userId) == entry && !entry.stale && !inFlight.containsKey(userId)) {
+                entry.counts[Counter.PENDING_PROPOSALS.ordinal()] = pending;
+                entry.counts[Counter.ACTIVE_SWAPS.ordinal()] = swaps;
+                entry.counts[Counter.UNREAD_MESSAGES.ordinal()] = unread;
+                entry.loadedAt = System.currentTimeMillis();
+                entry.loaded = true;
+            } else if (cache.get(userId) == entry) {
+                cache.remove(userId);
+            }
+        }
+        return UserCountersDTO.builder().pendingProposals(pending).activeSwaps(swaps).unreadMessages(unread).build();
+    }
+
+    /**
+     * 回報計數增減；在交易中時於提交後才套用，交易結束前此使用者的載入結果不快取。
+     * 快取中沒有的使用者略過（下次讀取時重新計數）
+     */
+    public void adjust(Long userId, Counter counter, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (cache) {
+                apply(userId, counter, delta);
+            }
+            return;
+        }
+        synchronized (cache) {
+            inFlight.merge(userId, 1, Integer::sum);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (cache) {
+                    if (status == STATUS_COMMITTED) {
+                        apply(userId, counter, delta);
+                    }
+                    inFlight.computeIfPresent(userId, (k, n) -> n > 1 ? n - 1 : null);
+                }
+            }
+        });
+    }
+
+    /**
+     * 無法確定增減量時（例如批次更新的筆數與預期不同）丟棄快取，下次讀取時重新計數；在交易中時於提交後才丟棄
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            // 載入中的 entry 移出快取後，載入結果不會再放回
+            synchronized (cache) {
+                cache.remove(userId);
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // 呼叫端需持有 cache 鎖
+    private void apply(Long userId, Counter counter, long delta) {
+        Entry entry = cache.get(userId);
+        if (entry == null) {
+            return;
+        }
+        if (!entry.loaded) {
+            entry.stale = true;
+            return;
+        }
+        int i = counter.ordinal();
+        entry.counts[i] = Math.max(0, entry.counts[i] + delta);
+    }
+
+    private static class Entry {
+        final long[] counts = new long[Counter.values().length];
+        long loadedAt;
+        boolean loaded;
+        boolean stale;
+
+        UserCountersDTO toDTO() {
+            return UserCountersDTO.builder()
+                    .pendingProposals(counts[Counter.PENDING_PROPOSALS.ordinal()])
+                    .activeSwaps(counts[Counter.ACTIVE_SWAPS.ordinal()])
+                    .unreadMessages(counts[Counter.UNREAD_MESSAGES.ordinal()])
+                    .build();
+        }
+    }
+
+    public static class UnauthorizedException extends RuntimeException {}
+}
@@ -0,0 +1,106 @@
+package com.exchange.platform.service;
+
+import com.exchange.platform.entity.User;
+import com.exchange.platform.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 使用者顯示名稱解析
+ * 一頁資料的所有 userId 只用一次 findAllById 載入，並以有上限的 LRU 快取保存
+ * 使用者修改個人資料時由 AuthService 呼叫 evict() 失效
+ */
+@Component
+@RequiredArgsConstructor
+public class UserDisplayNameResolver {
+
+    public static final String UNKNOWN_USER = "未知使用者";
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final UserRepository userRepository;
+
+    private final Map<Long, String> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * 解析單一使用者名稱，找不到時回傳「未知使用者」
+     */
+    public String resolve(Long userId) {
+        if (userId == null) {
+            return UNKNOWN_USER;
+        }
+        return resolveAll(Set.of(userId)).getOrDefault(userId, UNKNOWN_USER);
+    }
+
+    /**
+     * 批次解析使用者名稱；快取未命中的部分以一次 findAllById 載入
+     * 回傳的 Map 不包含不存在的使用者
+     */
+    public Map<Long, String> resolveAll(Collection<Long> userIds) {
+        Map<Long, String> result = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        synchronized (cache) {
+            for (Long id : userIds) {
+                if (id == null) continue;
+                String name = cache.get(id);
+                if (name != null) {
+                    result.put(id, name);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, String> loaded = new HashMap<>();
+        for (User user : userRepository.findAllById(missing)) {
+            loaded.put(user.getId(), Objects.requireNonNullElse(user.getDisplayName(), UNKNOWN_USER));
+        }
+        synchronized (cache) {
+            cache.putAll(loaded);
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * 失效指定使用者的快取；在交易中時於 commit 後再失效一次，避免讀到舊值後又被放回快取
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(userId);
+                }
+            });
+        }
+    }
+
+    private void remove(Long userId) {
+        synchronized (cache) {
+            cache.remove(userId);
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.exchange.tests;
 
 import com.exchange.platform.ExchangeWebAppApplication;
+import com.exchange.platform.entity.EmailNotification;
 import com.exchange.platform.entity.Listing;
 import com.exchange.platform.entity.User;
+import com.exchange.platform.repository.EmailNotificationRepository;
 import com.exchange.platform.repository.ListingRepository;
 import com.exchange.platform.repository.UserRepository;
+import com.exchange.platform.service.TradeCycleEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -96,6 +99,27 @@ public class ListingSystemTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EmailNotificationRepository emailNotificationRepository;
+
+    @Autowired
+    private TradeCycleEngine tradeCycleEngine;
+
+    @Autowired
+    private com.exchange.platform.service.AuthService authService;
+
+    @Autowired
+    private com.exchange.platform.service.UserDisplayNameResolver userDisplayNameResolver;
+
+    @Autowired
+    private jakarta.persistence.EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private com.exchange.platform.service.ListingImageHashService listingImageHashService;
+
+    @Autowired
+    private org.springframework.transaction.PlatformTransactionManager transactionManager;
+
     private User testUser;
     private User otherUser;
     private MockHttpSession userSession;
@@ -546,4 +570,674 @@ public class ListingSystemTest {
 
         System.out.println("✅ 輔助測試通過：未登入存取回傳 401");
     }
+
+    // ==================== 輔助測試：圖片清單 ====================
+    /**
+     * 輔助測試：圖片清單
+     * Given: 透過 API 建立含兩張圖片的刊登，以及一筆舊格式（逗號分隔）的刊登
+     * When: GET /api/listings/{id}
+     * Then: imageUrls 依上傳順序回傳 /images/ 開頭的 URL，舊格式資料也能正確解析
+     */
+    @Test
+    @DisplayName("輔助測試：圖片清單")
+    void testImageList() throws Exception {
+        // Given: 透過 API 建立
+        String requestBody = """
+            {
+                "cardName": "Image Card",
+                "artistName": "Artist",
+                "cardSource": "ALBUM",
+                "conditionRating": 7,
+                "hasProtection": true,
+                "imageFileNames": ["front.jpg", "back.jpg"]
+            }
+            """;
+        String body = mockMvc.perform(post("/api/listings")
+                        .session(userSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Integer id = com.jayway.jsonpath.JsonPath.read(body, "$.id");
+
+        // When & Then
+        mockMvc.perform(get("/api/listings/" + id).session(userSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imageUrls", contains("/images/front.jpg", "/images/back.jpg")));
+        assertEquals("[\"front.jpg\",\"back.jpg\"]",
+                listingRepository.findById(id.longValue()).orElseThrow().getImagePaths().toJson());
+
+        // Given: 舊格式資料
+        Listing legacy = new Listing();
+        legacy.setCardName("Legacy Card");
+        legacy.setArtistName("Artist");
+        legacy.setCardSource(Listing.CardSource.ALBUM);
+        legacy.setConditionRating(5);
+        legacy.setHasProtection(false);
+        legacy.setImagePaths("legacy1.jpg, legacy2.jpg");
+        legacy.setUserId(testUser.getId());
+        legacy = listingRepository.save(legacy);
+
+        // When & Then
+        mockMvc.perform(get("/api/listings/" + legacy.getId()).session(userSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imageUrls", contains("/images/legacy1.jpg", "/images/legacy2.jpg")));
+
+        System.out.println("✅ 輔助測試通過：圖片清單解析正確");
+    }
+
+    // ==================== 輔助測試：批次建立刊登 ====================
+    /**
+     * 輔助測試：批次建立刊登
+     * Given: 已登入使用者
+     * When: POST /api/listings/bulk 一次送出 120 筆；另送出 301 筆與未登入請求
+     * Then: 120 筆全部建立且 ID 不重複；超過上限回傳 400；未登入回傳 401
+     */
+    @Test
+    @DisplayName("輔助測試：批次建立刊登")
+    void testBulkCreate() throws Exception {
+        // Given
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < 301; i++) {
+            if (i > 0) items.append(',');
+            items.append("""
+                {"cardName": "Bulk Card %d", "artistName": "Artist", "cardSource": "ALBUM",
+                 "conditionRating": 8, "hasProtection": true, "imageFileNames": ["bulk%d.jpg"]}
+                """.formatted(i, i));
+        }
+        String all = items.toString();
+        String first120 = all.substring(0, indexOfNth(all, "{\"cardName\"", 120) - 1);
+
+        // When & Then: 120 筆
+        String body = mockMvc.perform(post("/api/listings/bulk")
+                        .session(userSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"listings\": [" + first120 + "]}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(120))
+                .andExpect(jsonPath("$[119].cardName").value("Bulk Card 119"))
+                .andReturn().getResponse().getContentAsString();
+        java.util.List<Integer> ids = com.jayway.jsonpath.JsonPath.read(body, "$[*].id");
+        assertEquals(120, new java.util.HashSet<>(ids).size());
+        assertEquals(120, listingRepository.findByUserId(testUser.getId(),
+                org.springframework.data.domain.PageRequest.of(0, 1)).getTotalElements());
+
+        // When & Then: 超過上限
+        mockMvc.perform(post("/api/listings/bulk")
+                        .session(userSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"listings\": [" + all + "]}"))
+                .andExpect(status().isBadRequest());
+
+        // When & Then: 未登入
+        mockMvc.perform(post("/api/listings/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"listings\": [" + first120 + "]}"))
+                .andExpect(status().isUnauthorized());
+
+        System.out.println("✅ 輔助測試通過：批次建立刊登");
+    }
+
+    // ==================== 輔助測試：批次取得刊登 ====================
+    /**
+     * 輔助測試：批次取得刊登
+     * 
+     * <p>GET /api/listings?ids= 應依請求順序回傳，重複的 ID 只回傳一次、不存在的 ID 略過；
+     * 超過 100 筆回傳 400。</p>
+     */
+    @Test
+    @DisplayName("輔助測試：批次取得刊登")
+    void testBatchLookup() throws Exception {
+        // Given
+        Listing a = listingRepository.save(cycleListing("Batch A", testUser.getId()));
+        Listing b = listingRepository.save(cycleListing("Batch B", otherUser.getId()));
+        Listing c = listingRepository.save(cycleListing("Batch C", testUser.getId()));
+
+        // When & Then
+        mockMvc.perform(get("/api/listings")
+                        .param("ids", "%d,%d,999999,%d,%d".formatted(c.getId(), a.getId(), b.getId(), a.getId()))
+                        .session(userSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].cardName", contains("Batch C", "Batch A", "Batch B")))
+                .andExpect(jsonPath("$[*].ownerDisplayName", contains("Test User", "Test User", "Other User")))
+                .andExpect(jsonPath("$[*].isMine", contains(true, true, false)));
+
+        // When & Then: 超過上限
+        String tooMany = java.util.stream.LongStream.rangeClosed(1, 101)
+                .mapToObj(String::valueOf)
+                .collect(java.util.stream.Collectors.joining(","));
+        mockMvc.perform(get("/api/listings").param("ids", tooMany))
+                .andExpect(status().isBadRequest());
+
+        System.out.println("✅ 輔助測試通過：批次取得刊登依請求順序回傳");
+    }
+
+    // ==================== 輔助測試：擁有者名稱批次解析 ====================
+    /**
+     * 輔助測試：擁有者名稱批次解析
+     *
+     * <p>一頁刊登的擁有者名稱由 UserDisplayNameResolver 一次載入：1 筆與 6 筆（6 位不同擁有者）
+     * 的 SQL 數量相同；擁有者修改顯示名稱後，下一次查詢即顯示新名稱。</p>
+     */
+    @Test
+    @DisplayName("輔助測試：擁有者名稱批次解析")
+    void testOwnerDisplayNamesBatched() throws Exception {
+        // Given: 6 位擁有者各有一筆刊登
+        java.util.List<Long> ownerIds = new java.util.ArrayList<>();
+        java.util.List<Long> listingIds = new java.util.ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            User owner = userRepository.save(User.builder()
+                    .email("owner" + i + "@example.com")
+                    .passwordHash("password123")
+                    .displayName("Owner " + i)
+                    .verified(true)
+                    .roles("USER")
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            ownerIds.add(owner.getId());
+            listingIds.add(listingRepository.save(cycleListing("Owner Card " + i, owner.getId())).getId());
+        }
+
+        // When & Then: SQL 數量與頁面筆數無關
+        long single = countBatchLookupStatements(listingIds.subList(0, 1), ownerIds);
+        long multiple = countBatchLookupStatements(listingIds, ownerIds);
+        assertEquals(single, multiple, "頁面筆數不應影響 SQL 數量：1 筆 " + single + "、6 筆 " + multiple);
+
+        // When: 擁有者修改顯示名稱（名稱已在快取中）
+        com.exchange.platform.dto.UpdateProfileRequest request = new com.exchange.platform.dto.UpdateProfileRequest();
+        request.setDisplayName("Renamed Owner");
+        assertTrue(authService.updateProfile(ownerIds.get(0), request).isSuccess());
+
+        // Then: 下一次查詢顯示新名稱
+        mockMvc.perform(get("/api/listings").param("ids", String.valueOf(listingIds.get(0))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].ownerDisplayName").value("Renamed Owner"));
+
+        System.out.println("✅ 輔助測試通過：擁有者名稱批次解析，修改名稱後立即生效");
+    }
+
+    // 清空名稱快取與持久化內容後以 ?ids= 查詢，回傳執行的 SQL 數量；
+    // 統計涵蓋整個 SessionFactory，背景工作可能混入，取三次中的最小值
+    private long countBatchLookupStatements(java.util.List<Long> listingIds, java.util.List<Long> ownerIds) throws Exception {
+        jakarta.persistence.EntityManager em = org.springframework.orm.jpa.EntityManagerFactoryUtils
+                .getTransactionalEntityManager(entityManagerFactory);
+        org.hibernate.stat.Statistics statistics = entityManagerFactory
+                .unwrap(org.hibernate.SessionFactory.class).getStatistics();
+        String ids = listingIds.stream().map(String::valueOf).collect(java.util.stream.Collectors.joining(","));
+        statistics.setStatisticsEnabled(true);
+        try {
+            long fewest = Long.MAX_VALUE;
+            for (int attempt = 0; attempt < 3; attempt++) {
+                ownerIds.forEach(userDisplayNameResolver::evict);
+                em.flush();
+                em.clear();
+                statistics.clear();
+                mockMvc.perform(get("/api/listings").param("ids", ids))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(listingIds.size()))
+                        .andExpect(jsonPath("$[*].ownerDisplayName", everyItem(startsWith("Owner "))));
+                fewest = Math.min(fewest, statistics.getPrepareStatementCount());
+            }
+            return fewest;
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    // ==================== 輔助測試：關注搜尋通知 ====================
+    /**
+     * 輔助測試：關注搜尋通知
+     * 
+     * <p>其他使用者保存關注搜尋後，新刊登符合關鍵字時應排入 SAVED_SEARCH_MATCH 通知；
+     * 不符合的關鍵字與刊登者自己的關注搜尋不應收到通知。</p>
+     */
+    @Test
+    @DisplayName("輔助測試：關注搜尋通知")
+    void testSavedSearchAlerts() throws Exception {
+        // Given
+        mockMvc.perform(post("/api/saved-searches")
+                        .session(otherUserSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"Wonyoung 應援\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.query").value("Wonyoung 應援"));
+        mockMvc.perform(post("/api/saved-searches")
+                        .session(otherUserSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"wonyoung 應援\"}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/api/saved-searches")
+                        .session(userSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"Wonyoung\"}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/saved-searches")
+                        .session(otherUserSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"!!!\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/saved-searches").session(otherUserSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        // When: 不符合（缺少「應援」）
+        mockMvc.perform(post("/api/listings")
+                        .session(userSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {"cardName": "Wonyoung 專輯小卡", "artistName": "Wonyoung", "cardSource": "ALBUM",
+                             "conditionRating": 9, "hasProtection": true, "imageFileNames": ["a.jpg"]}
+                            """))
+                .andExpect(status().isCreated());
+        assertTrue(alertsFor(otherUser.getId()).isEmpty());
+
+        // When: 符合（大小寫不同、關鍵字跨越卡名）
+        String body = mockMvc.perform(post("/api/listings")
+                        .session(userSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {"cardName": "WONYOUNG 應援小卡", "artistName": "Wonyoung", "cardSource": "EVENT_CARD",
+                             "conditionRating": 9, "hasProtection": true, "imageFileNames": ["b.jpg"]}
+                            """))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Integer listingId = com.jayway.jsonpath.JsonPath.read(body, "$.id");
+
+        // Then
+        java.util.List<EmailNotification> alerts = alertsFor(otherUser.getId());
+        assertEquals(1, alerts.size());
+        assertEquals(listingId.longValue(), alerts.get(0).getRelatedEntityId());
+        assertFalse(alerts.get(0).getSent());
+        assertTrue(alertsFor(testUser.getId()).isEmpty(), "刊登者不應收到自己刊登的通知");
+
+        // When & Then: 刪除後不再通知
+        Integer savedId = com.jayway.jsonpath.JsonPath.read(
+                mockMvc.perform(get("/api/saved-searches").session(otherUserSession))
+                        .andReturn().getResponse().getContentAsString(), "$[0].id");
+        mockMvc.perform(delete("/api/saved-searches/" + savedId).session(userSession))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/saved-searches/" + savedId).session(otherUserSession))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/listings")
+                        .session(userSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {"cardName": "Wonyoung 應援小卡 B", "artistName": "Wonyoung", "cardSource": "EVENT_CARD",
+                             "conditionRating": 8, "hasProtection": true, "imageFileNames": ["c.jpg"]}
+                            """))
+                .andExpect(status().isCreated());
+        assertEquals(1, alertsFor(otherUser.getId()).size());
+
+        System.out.println("✅ 輔助測試通過：關注搜尋通知");
+    }
+
+    // ==================== 輔助測試：關注搜尋通知（單字中段） ====================
+    /**
+     * 輔助測試：關注搜尋通知（單字中段）
+     * 
+     * <p>Given 關注搜尋的開頭 token 落在刊登單字中段（"ard" 對 "Card"）
+     * When 新增符合的刊登
+     * Then 與搜尋相同判定，應排入通知；"special ard" 這類中間 token 不在單字開頭的關鍵字不應命中</p>
+     */
+    @Test
+    @DisplayName("輔助測試：關注搜尋通知（單字中段）")
+    void testSavedSearchAlerts_MidWord() throws Exception {
+        // Given
+        saveSearch(otherUserSession, "ard");
+        saveSearch(otherUserSession, "special ard");
+        saveSearch(otherUserSession, "ecial ca");
+
+        // When
+        String body = mockMvc.perform(post("/api/listings")
+                        .session(userSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {"cardName": "Special Card", "artistName": "Wonyoung", "cardSource": "ALBUM",
+                             "conditionRating": 9, "hasProtection": true, "imageFileNames": ["a.jpg"]}
+                            """))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Integer listingId = com.jayway.jsonpath.JsonPath.read(body, "$.id");
+
+        // Then: 每位使用者只收到一筆
+        java.util.List<EmailNotification> alerts = alertsFor(otherUser.getId());
+        assertEquals(1, alerts.size());
+        assertEquals(listingId.longValue(), alerts.get(0).getRelatedEntityId());
+        mockMvc.perform(get("/api/listings").param("q", "ard").session(otherUserSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(hasItem(listingId)));
+
+        // When & Then: 只保留不符合的關鍵字時不通知
+        for (Object id : com.jayway.jsonpath.JsonPath.<java.util.List<Object>>read(
+                mockMvc.perform(get("/api/saved-searches").session(otherUserSession))
+                        .andReturn().getResponse().getContentAsString(), "$[?(@.query != 'special ard')].id")) {
+            mockMvc.perform(delete("/api/saved-searches/" + id).session(otherUserSession))
+                    .andExpect(status().isNoContent());
+        }
+        mockMvc.perform(post("/api/listings")
+                        .session(userSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {"cardName": "Special Card B", "artistName": "Wonyoung", "cardSource": "ALBUM",
+                             "conditionRating": 9, "hasProtection": true, "imageFileNames": ["b.jpg"]}
+                            """))
+                .andExpect(status().isCreated());
+        assertEquals(1, alertsFor(otherUser.getId()).size());
+
+        System.out.println("✅ 輔助測試通過：關注搜尋通知（單字中段）");
+    }
+
+    // ==================== 輔助測試：關注搜尋通知（編輯後符合） ====================
+    /**
+     * 輔助測試：關注搜尋通知（編輯後符合）
+     * 
+     * <p>Given 刊登建立時不符合某使用者的關注搜尋
+     * When 編輯加入關鍵字
+     * Then 應排入通知；之後再編輯（仍符合、或移除後再加回）都不重複通知同一 (使用者, 刊登)</p>
+     */
+    @Test
+    @DisplayName("輔助測試：關注搜尋通知（編輯後符合）")
+    void testSavedSearchAlerts_OnEdit() throws Exception {
+        // Given
+        saveSearch(otherUserSession, "Karina");
+        String body = mockMvc.perform(post("/api/listings")
+                        .session(userSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(editBody("Winter 專輯小卡")))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Integer listingId = com.jayway.jsonpath.JsonPath.read(body, "$.id");
+        assertTrue(alertsFor(otherUser.getId()).isEmpty());
+
+        // When: 編輯後符合
+        mockMvc.perform(put("/api/listings/" + listingId)
+                        .session(userSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(editBody("Karina 專輯小卡")))
+                .andExpect(status().isOk());
+
+        // Then
+        java.util.List<EmailNotification> alerts = alertsFor(otherUser.getId());
+        assertEquals(1, alerts.size());
+        assertEquals(listingId.longValue(), alerts.get(0).getRelatedEntityId());
+
+        // When & Then: 仍符合、移除後再加回都不重複通知
+        for (String cardName : new String[] {"Karina 專輯小卡 B", "Winter 專輯小卡", "Karina 專輯小卡"}) {
+            mockMvc.perform(put("/api/listings/" + listingId)
+                            .session(userSession)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(editBody(cardName)))
+                    .andExpect(status().isOk());
+        }
+        assertEquals(1, alertsFor(otherUser.getId()).size());
+        assertTrue(alertsFor(testUser.getId()).isEmpty(), "刊登者不應收到自己刊登的通知");
+
+        System.out.println("✅ 輔助測試通過：關注搜尋通知（編輯後符合）");
+    }
+
+    // ==================== 輔助測試：多方交換循環 ====================
+    /**
+     * 輔助測試：多方交換循環
+     * 
+     * <p>A 想要 B 的卡、B 想要 C 的卡、C 想要 A 的卡時，三人都應看到同一個三方交換建議；
+     * 任一張卡不再可交換後，建議應消失。</p>
+     */
+    @Test
+    @DisplayName("輔助測試：多方交換循環")
+    void testTradeCycles() throws Exception {
+        // Given
+        User thirdUser = userRepository.save(User.builder()
+                .email("thirduser@example.com")
+                .passwordHash("password123")
+                .displayName("Third User")
+                .verified(true)
+                .roles("USER")
+                .createdAt(LocalDateTime.now())
+                .build());
+        MockHttpSession thirdSession = new MockHttpSession();
+        thirdSession.setAttribute("userId", thirdUser.getId());
+
+        Listing alpha = listingRepository.saveAndFlush(cycleListing("Alpha Cycle Card", testUser.getId()));
+        Listing beta = listingRepository.saveAndFlush(cycleListing("Beta Cycle Card", otherUser.getId()));
+        listingRepository.saveAndFlush(cycleListing("Gamma Cycle Card", thirdUser.getId()));
+
+        saveSearch(userSession, "Beta Cycle");
+        saveSearch(otherUserSession, "Gamma Cycle");
+        mockMvc.perform(get("/api/trade-cycles").session(userSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        // When: 第三人補上最後一條邊
+        saveSearch(thirdSession, "Alpha Cycle");
+        tradeCycleEngine.refresh();
+
+        // Then
+        for (MockHttpSession session : Arrays.asList(userSession, otherUserSession, thirdSession)) {
+            mockMvc.perform(get("/api/trade-cycles").session(session))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].size").value(3))
+                    .andExpect(jsonPath("$[0].legs[*].cardName", containsInAnyOrder(
+                            "Alpha Cycle Card", "Beta Cycle Card", "Gamma Cycle Card")));
+        }
+        mockMvc.perform(get("/api/trade-cycles").session(userSession))
+                .andExpect(jsonPath("$[0].legs[?(@.listingId == %d)].receiverId".formatted(beta.getId()),
+                        contains(testUser.getId().intValue())))
+                .andExpect(jsonPath("$[0].legs[?(@.listingId == %d)].giverId".formatted(alpha.getId()),
+                        contains(testUser.getId().intValue())));
+
+        // When & Then: 卡片被鎖定後建議消失
+        alpha.setStatus(Listing.Status.LOCKED);
+        listingRepository.saveAndFlush(alpha);
+        tradeCycleEngine.refresh();
+        mockMvc.perform(get("/api/trade-cycles").session(thirdSession))
+                .andExpect(jsonPath("$.length()").value(0));
+
+        // When & Then: 未登入
+        mockMvc.perform(get("/api/trade-cycles"))
+                .andExpect(status().isUnauthorized());
+
+        System.out.println("✅ 輔助測試通過：多方交換循環");
+    }
+
+    // ==================== 輔助測試：圖片近似比對（疑似盜圖） ====================
+    /**
+     * 輔助測試：圖片近似比對（疑似盜圖）
+     * 
+     * <p>上傳圖片後於背景計算感知雜湊；其他使用者以調亮、縮放過的同一張圖片建立刊登時，
+     * duplicateImageOf 應指向原刊登。不同圖片、或使用自己先前的圖片不應被標記。</p>
+     */
+    @Test
+    @DisplayName("輔助測試：圖片近似比對（疑似盜圖）")
+    void testDuplicateImageDetection() throws Exception {
+        // Given
+        byte[] original = patternPng(17, 64, 0);
+        byte[] altered = patternPng(17, 80, 12);
+        byte[] different = patternPng(99, 64, 0);
+
+        // When & Then: 原圖
+        Long originalId = createWithUpload(userSession, "Original Photo", original, null);
+
+        // When & Then: 他人盜用（調亮、縮放）
+        createWithUpload(otherUserSession, "Copied Photo", altered, originalId);
+
+        // When & Then: 不同圖片
+        createWithUpload(otherUserSession, "Different Photo", different, null);
+
+        // When & Then: 自己的圖片重複使用
+        createWithUpload(userSession, "Original Photo Again", original, null);
+
+        System.out.println("✅ 輔助測試通過：圖片感知雜湊近似比對");
+    }
+
+    // ==================== 輔助測試：批次建立的圖片近似比對 ====================
+    /**
+     * 輔助測試：批次建立的圖片近似比對
+     * 
+     * <p>其他使用者以 /api/listings/bulk 一次建立三筆刊登（盜用、不同圖片、盜用），
+     * 整批一起比對，盜用的兩筆 duplicateImageOf 指向原刊登。</p>
+     */
+    @Test
+    @DisplayName("輔助測試：批次建立的圖片近似比對")
+    void testBulkDuplicateImageDetection() throws Exception {
+        // Given
+        Long originalId = createWithUpload(userSession, "Bulk Original", patternPng(23, 64, 0), null);
+        String[] fileNames = {
+                upload(otherUserSession, patternPng(23, 80, 12)),
+                upload(otherUserSession, patternPng(77, 64, 0)),
+                upload(otherUserSession, patternPng(23, 72, 6))
+        };
+
+        // When
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < fileNames.length; i++) {
+            if (i > 0) items.append(',');
+            items.append("""
+                {"cardName": "Bulk Hash %d", "artistName": "Hash Artist", "cardSource": "ALBUM",
+                 "conditionRating": 8, "hasProtection": true, "imageFileNames": ["%s"]}
+                """.formatted(i, fileNames[i]));
+        }
+
+        // Then
+        mockMvc.perform(post("/api/listings/bulk")
+                        .session(otherUserSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"listings\": [" + items + "]}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].duplicateImageOf").value(originalId))
+                .andExpect(jsonPath("$[1].duplicateImageOf").value(nullValue()))
+                .andExpect(jsonPath("$[2].duplicateImageOf").value(originalId));
+
+        System.out.println("✅ 輔助測試通過：批次建立整批比對圖片近似");
+    }
+
+    // ==================== 輔助測試：回滾後保留待比對的圖片雜湊 ====================
+    /**
+     * 輔助測試：回滾後保留待比對的圖片雜湊
+     * 
+     * <p>建立刊登的交易取出上傳圖片的雜湊後回滾，雜湊應放回待比對清單；
+     * 重試時仍取得同一個雜湊，提交後則不能再取得。</p>
+     */
+    @Test
+    @DisplayName("輔助測試：回滾後保留待比對的圖片雜湊")
+    void testImageHashRestoredOnRollback() throws Exception {
+        // Given
+        String fileName = upload(otherUserSession, patternPng(23, 64, 0));
+        java.util.List<java.util.List<String>> groups = java.util.List.of(java.util.List.of(fileName));
+        org.springframework.transaction.support.TransactionTemplate tx =
+                new org.springframework.transaction.support.TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(org.springframework.transaction.TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // When: 取出後回滾
+        Integer takenBeforeRollback = tx.execute(status -> {
+            status.setRollbackOnly();
+            return listingImageHashService.takeAll(groups, otherUser.getId()).get(0).size();
+        });
+
+        // Then: 重試仍取得雜湊；提交後不再取得
+        assertEquals(1, takenBeforeRollback);
+        Integer takenOnRetry = tx.execute(status -> listingImageHashService.takeAll(groups, otherUser.getId()).get(0).size());
+        assertEquals(1, takenOnRetry);
+        assertTrue(listingImageHashService.takeAll(groups, otherUser.getId()).get(0).isEmpty());
+
+        System.out.println("✅ 輔助測試通過：回滾後保留待比對的圖片雜湊");
+    }
+
+    private String upload(MockHttpSession session, byte[] png) throws Exception {
+        String upload = mockMvc.perform(multipart("/ui/api/images/upload")
+                        .file(new org.springframework.mock.web.MockMultipartFile("file", "card.png", "image/png", png))
+                        .session(session))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return com.jayway.jsonpath.JsonPath.read(upload, "$.fileName");
+    }
+
+    private Long createWithUpload(MockHttpSession session, String cardName, byte[] png, Long expectedDuplicateOf)
+            throws Exception {
+        String fileName = upload(session, png);
+
+        String created = mockMvc.perform(post("/api/listings")
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {
+                                "cardName": "%s",
+                                "artistName": "Hash Artist",
+                                "cardSource": "ALBUM",
+                                "conditionRating": 8,
+                                "hasProtection": true,
+                                "imageFileNames": ["%s"]
+                            }
+                            """.formatted(cardName, fileName)))
+                .andExpect(status().isCreated())
+                .andExpect(expectedDuplicateOf == null
+                        ? jsonPath("$.duplicateImageOf").value(nullValue())
+                        : jsonPath("$.duplicateImageOf").value(expectedDuplicateOf))
+                .andReturn().getResponse().getContentAsString();
+        return ((Number) com.jayway.jsonpath.JsonPath.read(created, "$.id")).longValue();
+    }
+
+    // 以亂數 8x8 色塊產生測試圖片；size 為邊長、brighten 為整體亮度位移
+    private static byte[] patternPng(long seed, int size, int brighten) throws java.io.IOException {
+        java.util.Random random = new java.util.Random(seed);
+        int[][] blocks = new int[8][8];
+        for (int[] row : blocks) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = 30 + random.nextInt(190);
+            }
+        }
+        java.awt.image.BufferedImage image =
+                new java.awt.image.BufferedImage(size, size, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int v = Math.min(blocks[y * 8 / size][x * 8 / size] + brighten, 255);
+                image.setRGB(x, y, (v << 16) | (v << 8) | v);
+            }
+        }
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        javax.imageio.ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private Listing cycleListing(String cardName, Long userId) {
+        return Listing.builder()
+                .cardName(cardName)
+                .artistName("Cycle Artist")
+                .cardSource(Listing.CardSource.ALBUM)
+                .conditionRating(8)
+                .hasProtection(true)
+                .imagePaths("[\"cycle.jpg\"]")
+                .userId(userId)
+                .build();
+    }
+
+    private void saveSearch(MockHttpSession session, String query) throws Exception {
+        mockMvc.perform(post("/api/saved-searches")
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"" + query + "\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    private static String editBody(String cardName) {
+        return """
+                {"cardName": "%s", "artistName": "aespa", "cardSource": "ALBUM",
+                 "conditionRating": 9, "hasProtection": true, "imageFileNames": ["a.jpg"]}
+                """.formatted(cardName);
+    }
+
+    private java.util.List<EmailNotification> alertsFor(Long userId) {
+        return emailNotificationRepository.findAll().stream()
+                .filter(n -> n.getRecipientId().equals(userId))
+                .filter(n -> n.getNotificationType() == EmailNotification.NotificationType.SAVED_SEARCH_MATCH)
+                .toList();
+    }
+
+    private static int indexOfNth(String text, String token, int n) {
+        int index = -1;
+        for (int i = 0; i <= n; i++) {
+            index = text.indexOf(token, index + 1);
+        }
+        return index;
+    }
 }
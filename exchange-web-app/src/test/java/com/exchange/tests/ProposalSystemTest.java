@@ -128,6 +128,27 @@ public class ProposalSystemTest {
     @Autowired
     private ProposalRepository proposalRepository;
 
+    @Autowired
+    private jakarta.persistence.EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private com.exchange.platform.repository.SwapRepository swapRepository;
+
+    @Autowired
+    private com.exchange.platform.repository.OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private org.springframework.transaction.PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private com.exchange.platform.service.ChatService chatService;
+
+    @Autowired
+    private com.exchange.platform.service.UserCounterService userCounterService;
+
+    @Autowired
+    private com.exchange.platform.service.UserDisplayNameResolver userDisplayNameResolver;
+
     private User proposerUser;
     private User receiverUser;
     private User thirdUser;
@@ -399,4 +420,446 @@ public class ProposalSystemTest {
 
         System.out.println(" 輔助測試通過：非參與者無法拒絕提案，回傳 403 Forbidden");
     }
-}
\ No newline at end of file
+
+    // 輔助測試：提案列表分頁
+    @Test
+    @DisplayName("輔助測試：提案列表分頁（兩段式查詢）")
+    public void testListProposals_Paging() throws Exception {
+        // Given: 提案者對三張卡各提出一次提案
+        int[] targets = new int[3];
+        for (int i = 0; i < 3; i++) {
+            Listing target = listingRepository.save(Listing.builder()
+                    .cardName("Paged Card " + i)
+                    .artistName("Artist B")
+                    .cardSource(Listing.CardSource.ALBUM)
+                    .conditionRating(8)
+                    .hasProtection(true)
+                    .imagePaths("/images/paged.jpg")
+                    .userId(receiverUser.getId())
+                    .build());
+            targets[i] = target.getId().intValue();
+            mockMvc.perform(post("/api/proposals")
+                            .session(proposerSession)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"listingId\": " + target.getId()
+                                    + ", \"proposerListingIds\": [" + proposerListing.getId() + "]}"))
+                    .andExpect(status().isCreated());
+        }
+
+        // When & Then: 每頁 2 筆，依 ID 由新到舊，明細完整載入
+        mockMvc.perform(get("/api/proposals/mine").param("page", "1").param("size", "2").param("sort", "id,desc")
+                        .session(proposerSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[*].receiverItems[0].listingId", contains(targets[2], targets[1])))
+                .andExpect(jsonPath("$[*].proposerItems[0].listingDisplay", contains(
+                        startsWith("Proposer Card"), startsWith("Proposer Card"))));
+        mockMvc.perform(get("/api/proposals/mine").param("page", "2").param("size", "2").param("sort", "id,desc")
+                        .session(proposerSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].receiverItems[0].listingId", contains(targets[0])));
+        mockMvc.perform(get("/api/proposals/received").param("page", "1").param("size", "2").param("sort", "id,asc")
+                        .session(receiverSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].receiverItems[0].listingId", contains(targets[0], targets[1])));
+
+        System.out.println(" 輔助測試通過：提案列表先分頁取得 ID，再載入該頁明細");
+    }
+
+    // 輔助測試：提案建立的查詢數與提供的卡片數無關
+    @Test
+    @DisplayName("輔助測試：提案建立以集合驗證，SQL 數量固定")
+    public void testCreateProposal_ConstantStatements() throws Exception {
+        // Given: 提案者另有五張卡、接收者有兩張卡
+        Long[] offered = new Long[5];
+        for (int i = 0; i < offered.length; i++) {
+            offered[i] = listingRepository.save(Listing.builder()
+                    .cardName("Offer " + i)
+                    .artistName("Artist A")
+                    .cardSource(Listing.CardSource.ALBUM)
+                    .conditionRating(8)
+                    .hasProtection(true)
+                    .imagePaths("/images/offer.jpg")
+                    .userId(proposerUser.getId())
+                    .build()).getId();
+        }
+        Listing secondTarget = listingRepository.save(Listing.builder()
+                .cardName("Second Target")
+                .artistName("Artist B")
+                .cardSource(Listing.CardSource.ALBUM)
+                .conditionRating(8)
+                .hasProtection(true)
+                .imagePaths("/images/target.jpg")
+                .userId(receiverUser.getId())
+                .build());
+        listingRepository.flush();
+
+        org.hibernate.stat.Statistics statistics = entityManagerFactory
+                .unwrap(org.hibernate.SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            // When: 提供一張卡
+            statistics.clear();
+            mockMvc.perform(post("/api/proposals")
+                            .session(proposerSession)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"listingId\": " + receiverListing.getId()
+                                    + ", \"proposerListingIds\": [" + offered[0] + "]}"))
+                    .andExpect(status().isCreated());
+            long single = statistics.getPrepareStatementCount();
+
+            // When: 提供五張卡（含重複的 ID）
+            statistics.clear();
+            mockMvc.perform(post("/api/proposals")
+                            .session(proposerSession)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"listingId\": " + secondTarget.getId() + ", \"proposerListingIds\": ["
+                                    + offered[0] + "," + offered[1] + "," + offered[2] + ","
+                                    + offered[3] + "," + offered[4] + "," + offered[1] + "]}"))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.proposerItems.length()").value(5))
+                    .andExpect(jsonPath("$.receiverItems.length()").value(1));
+            long multiple = statistics.getPrepareStatementCount();
+
+            // Then: 明細 ID 的 pooled 序列補充可能落在任一次請求，容許相差 1
+            org.junit.jupiter.api.Assertions.assertTrue(multiple <= single + 1,
+                    "提供的卡片數不應影響 SQL 數量：1 張 " + single + "、5 張 " + multiple);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        // Then: 驗證仍依序回報錯誤
+        mockMvc.perform(post("/api/proposals")
+                        .session(proposerSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"listingId\": " + secondTarget.getId()
+                                + ", \"proposerListingIds\": [" + offered[0] + ", 999999]}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/proposals")
+                        .session(proposerSession)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"listingId\": " + secondTarget.getId()
+                                + ", \"proposerListingIds\": [" + receiverListing.getId() + "]}"))
+                .andExpect(status().isForbidden());
+
+        System.out.println(" 輔助測試通過：提案建立一次載入所有刊登，SQL 數量與卡片數無關");
+    }
+
+    // 輔助測試：提供重疊卡片的兩個提案只能接受一個
+    @Test
+    @DisplayName("輔助測試：接受提案以條件式更新鎖定刊登，重疊的提案回 409")
+    public void testAcceptProposal_OverlappingOffers_Conflict() throws Exception {
+        // Given: 提案者以同一張卡向接收者的兩張卡各提一個提案
+        Listing secondTarget = listingRepository.save(Listing.builder()
+                .cardName("Second Target")
+                .artistName("Artist B")
+                .cardSource(Listing.CardSource.ALBUM)
+                .conditionRating(8)
+                .hasProtection(true)
+                .imagePaths("/images/target.jpg")
+                .userId(receiverUser.getId())
+                .build());
+        Long[] proposalIds = new Long[2];
+        Long[] targets = {receiverListing.getId(), secondTarget.getId()};
+        for (int i = 0; i < targets.length; i++) {
+            String body = mockMvc.perform(post("/api/proposals")
+                            .session(proposerSession)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"listingId\": " + targets[i]
+                                    + ", \"proposerListingIds\": [" + proposerListing.getId() + "]}"))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            proposalIds[i] = objectMapper.readTree(body).get("id").asLong();
+        }
+
+        long lockedBefore = lockedFacetCount();
+
+        // When: 接受第一個提案
+        mockMvc.perform(post("/api/proposals/" + proposalIds[0] + "/accept")
+                        .session(receiverSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ACCEPTED"));
+
+        // Then: 兩張卡都已鎖定
+        org.junit.jupiter.api.Assertions.assertEquals(Listing.Status.LOCKED,
+                listingRepository.findById(receiverListing.getId()).orElseThrow().getStatus());
+        org.junit.jupiter.api.Assertions.assertEquals(Listing.Status.LOCKED,
+                listingRepository.findById(proposerListing.getId()).orElseThrow().getStatus());
+        // 批次 UPDATE 不經 Entity 生命週期，記憶體篩選計數仍應同步
+        org.junit.jupiter.api.Assertions.assertEquals(lockedBefore + 2, lockedFacetCount());
+
+        // Then: 已接受的提案不能再接受或拒絕
+        mockMvc.perform(post("/api/proposals/" + proposalIds[0] + "/accept")
+                        .session(receiverSession))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/api/proposals/" + proposalIds[0] + "/reject")
+                        .session(receiverSession))
+                .andExpect(status().isConflict());
+
+        // Then: 提供的卡已被鎖定，第二個提案無法接受，也不會建立第二筆 Swap
+        mockMvc.perform(post("/api/proposals/" + proposalIds[1] + "/accept")
+                        .session(receiverSession))
+                .andExpect(status().isConflict());
+        long swaps = swapRepository.findAll().stream()
+                .filter(swap -> swap.getProposalId().equals(proposalIds[0]) || swap.getProposalId().equals(proposalIds[1]))
+                .count();
+        org.junit.jupiter.api.Assertions.assertEquals(1, swaps);
+
+        System.out.println(" 輔助測試通過：同一張卡只會被一個提案鎖定，重疊的提案回傳 409");
+    }
+
+    // 輔助測試：接受提案後，涉及同一批刊登的其他提案自動失效
+    @Test
+    @DisplayName("輔助測試：接受提案後，競爭中的 PENDING 提案批次改為 SUPERSEDED 並通知提案者")
+    public void testAcceptProposal_SupersedesCompeting() throws Exception {
+        // Given: 接收者另有一張卡，第三方用戶也有一張卡
+        Listing secondTarget = listingRepository.save(Listing.builder()
+                .cardName("Second Target")
+                .artistName("Artist B")
+                .cardSource(Listing.CardSource.ALBUM)
+                .conditionRating(8)
+                .hasProtection(true)
+                .imagePaths("/images/target.jpg")
+                .userId(receiverUser.getId())
+                .build());
+        Listing thirdListing = listingRepository.save(Listing.builder()
+                .cardName("Third Card")
+                .artistName("Artist C")
+                .cardSource(Listing.CardSource.ALBUM)
+                .conditionRating(8)
+                .hasProtection(true)
+                .imagePaths("/images/third.jpg")
+                .userId(thirdUser.getId())
+                .build());
+
+        // 被接受的提案；同一張想要的卡；提供同一張卡；與鎖定刊登無關
+        Long accepted = createProposal(proposerSession, receiverListing.getId(), proposerListing.getId());
+        Long sameTarget = createProposal(thirdUserSession, receiverListing.getId(), thirdListing.getId());
+        Long sameOffer = createProposal(proposerSession, secondTarget.getId(), proposerListing.getId());
+        Long unrelated = createProposal(thirdUserSession, secondTarget.getId(), thirdListing.getId());
+
+        // When: 接受提案
+        mockMvc.perform(post("/api/proposals/" + accepted + "/accept")
+                        .session(receiverSession))
+                .andExpect(status().isOk());
+
+        // Then: 競爭中的提案失效，無關的提案不受影響
+        org.junit.jupiter.api.Assertions.assertEquals(Proposal.Status.SUPERSEDED,
+                proposalRepository.findById(sameTarget).orElseThrow().getStatus());
+        org.junit.jupiter.api.Assertions.assertEquals(Proposal.Status.SUPERSEDED,
+                proposalRepository.findById(sameOffer).orElseThrow().getStatus());
+        org.junit.jupiter.api.Assertions.assertEquals(Proposal.Status.PENDING,
+                proposalRepository.findById(unrelated).orElseThrow().getStatus());
+
+        // Then: 失效提案的提案者各排入一筆通知事件（與其他提案通知相同走 outbox，由 OutboxDispatcher 投遞）
+        java.util.List<com.exchange.platform.service.OutboxService.NotificationPayload> superseded = new java.util.ArrayList<>();
+        for (com.exchange.platform.entity.OutboxEvent event : outboxEventRepository.findAll()) {
+            if (event.getType() != com.exchange.platform.entity.OutboxEvent.Type.NOTIFICATION) continue;
+            com.exchange.platform.service.OutboxService.NotificationPayload payload = objectMapper.readValue(
+                    event.getPayload(), com.exchange.platform.service.OutboxService.NotificationPayload.class);
+            if (payload.type() == com.exchange.platform.entity.EmailNotification.NotificationType.PROPOSAL_SUPERSEDED) {
+                superseded.add(payload);
+            }
+        }
+        org.junit.jupiter.api.Assertions.assertEquals(2, superseded.size());
+        for (Long id : new Long[]{sameTarget, sameOffer}) {
+            Long proposerId = proposalRepository.findById(id).orElseThrow().getProposerId();
+            org.junit.jupiter.api.Assertions.assertEquals(1, superseded.stream()
+                    .filter(n -> n.relatedEntityId().equals(id) && n.recipientId().equals(proposerId))
+                    .count());
+        }
+
+        // Then: 已失效的提案不可再接受
+        mockMvc.perform(post("/api/proposals/" + sameOffer + "/accept")
+                        .session(receiverSession))
+                .andExpect(status().isConflict());
+
+        System.out.println(" 輔助測試通過：接受提案後，競爭中的提案一次失效並通知提案者");
+    }
+
+    // 輔助測試：個人計數一次回傳待回覆提案、進行中交換、未讀訊息
+    @Test
+    @DisplayName("輔助測試：/api/me/counters 回傳個人計數，未登入回 401")
+    public void testUserCounters() throws Exception {
+        // Given: 接收者另有一張卡，第三方用戶也有一張卡
+        Listing secondTarget = listingRepository.save(Listing.builder()
+                .cardName("Second Target")
+                .artistName("Artist B")
+                .cardSource(Listing.CardSource.ALBUM)
+                .conditionRating(8)
+                .hasProtection(true)
+                .imagePaths("/images/target.jpg")
+                .userId(receiverUser.getId())
+                .build());
+        Listing thirdListing = listingRepository.save(Listing.builder()
+                .cardName("Third Card")
+                .artistName("Artist C")
+                .cardSource(Listing.CardSource.ALBUM)
+                .conditionRating(8)
+                .hasProtection(true)
+                .imagePaths("/images/third.jpg")
+                .userId(thirdUser.getId())
+                .build());
+
+        // When: 接受一個提案、另一個提案仍待回覆，提案者在聊天室傳了兩則訊息
+        Long accepted = createProposal(proposerSession, receiverListing.getId(), proposerListing.getId());
+        createProposal(thirdUserSession, secondTarget.getId(), thirdListing.getId());
+        mockMvc.perform(post("/api/proposals/" + accepted + "/accept")
+                        .session(receiverSession))
+                .andExpect(status().isOk());
+        Long roomId = chatService.createChatRoom(accepted, proposerUser.getId(), receiverUser.getId()).getId();
+        chatService.sendTextMessage(roomId, proposerUser.getId(), "哈囉");
+        chatService.sendTextMessage(roomId, proposerUser.getId(), "何時寄出？");
+
+        // Then: 接收者與提案者的計數
+        mockMvc.perform(get("/api/me/counters").session(receiverSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pendingProposals").value(1))
+                .andExpect(jsonPath("$.activeSwaps").value(1))
+                .andExpect(jsonPath("$.unreadMessages").value(2));
+        mockMvc.perform(get("/api/me/counters").session(proposerSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pendingProposals").value(0))
+                .andExpect(jsonPath("$.activeSwaps").value(1))
+                .andExpect(jsonPath("$.unreadMessages").value(0));
+
+        // Then: 未登入
+        mockMvc.perform(get("/api/me/counters"))
+                .andExpect(status().isUnauthorized());
+
+        System.out.println(" 輔助測試通過：個人計數以一次請求回傳，未登入回傳 401");
+    }
+
+    // 輔助測試：計數快取的增減與丟棄
+    @Test
+    @DisplayName("輔助測試：計數快取依提交後的增減更新，無法確定增減時丟棄重新計數")
+    public void testUserCounters_AdjustAndInvalidate() throws Exception {
+        Long userId = thirdUser.getId();
+        org.junit.jupiter.api.Assertions.assertEquals(0, userCounterService.get(userId).getPendingProposals());
+
+        // 交易外（其他執行緒）呼叫時立即套用，之後的讀取取自快取
+        java.util.concurrent.CompletableFuture.runAsync(() -> userCounterService.adjust(
+                userId, com.exchange.platform.service.UserCounterService.Counter.PENDING_PROPOSALS, 2)).get();
+        org.junit.jupiter.api.Assertions.assertEquals(2, userCounterService.get(userId).getPendingProposals());
+
+        // 丟棄後重新計數
+        java.util.concurrent.CompletableFuture.runAsync(() -> userCounterService.invalidate(userId)).get();
+        org.junit.jupiter.api.Assertions.assertEquals(0, userCounterService.get(userId).getPendingProposals());
+
+        System.out.println(" 輔助測試通過：計數快取增減與丟棄後重新計數");
+    }
+
+    // 輔助測試：寫入已提交、增減尚未套用時載入的計數不快取
+    @Test
+    @DisplayName("輔助測試：提交後、增減套用前載入的計數不快取，增減不會重複計算")
+    public void testUserCounters_LoadBetweenCommitAndAdjust() throws Exception {
+        Long userId = thirdUser.getId();
+        org.springframework.transaction.support.TransactionTemplate tx =
+                new org.springframework.transaction.support.TransactionTemplate(transactionManager);
+
+        // When: 寫入交易提交後、adjust 套用前（afterCommit 先於 afterCompletion）有讀取載入計數
+        java.util.concurrent.CompletableFuture.runAsync(() -> tx.executeWithoutResult(status -> {
+            org.springframework.transaction.support.TransactionSynchronizationManager.registerSynchronization(
+                    new org.springframework.transaction.support.TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            userCounterService.get(userId);
+                        }
+                    });
+            userCounterService.adjust(userId,
+                    com.exchange.platform.service.UserCounterService.Counter.PENDING_PROPOSALS, 1);
+        })).get();
+
+        // Then: 該次載入結果未快取，之後的讀取重新計數，與資料庫一致
+        org.junit.jupiter.api.Assertions.assertEquals(0, userCounterService.get(userId).getPendingProposals());
+
+        System.out.println(" 輔助測試通過：提交與套用增減之間載入的計數不快取");
+    }
+
+    // 輔助測試：刊登的提案列表查詢數與提案數無關
+    @Test
+    @DisplayName("輔助測試：刊登的提案列表以 FETCH JOIN 與批次查詢載入，SQL 數量固定")
+    public void testListByListing_ConstantStatements() throws Exception {
+        // Given: 第一個提案
+        createProposal(proposerSession, receiverListing.getId(), proposerListing.getId());
+        long single = countListByListingStatements(1);
+
+        // Given: 再由三位用戶各提一個提案
+        for (int i = 0; i < 3; i++) {
+            User user = userRepository.save(User.builder()
+                    .email("bulk" + i + "@test.com")
+                    .passwordHash("$2a$10$dummy")
+                    .displayName("Bulk User " + i)
+                    .build());
+            Listing offer = listingRepository.save(Listing.builder()
+                    .cardName("Bulk Offer " + i)
+                    .artistName("Artist D")
+                    .cardSource(Listing.CardSource.ALBUM)
+                    .conditionRating(8)
+                    .hasProtection(true)
+                    .imagePaths("/images/bulk.jpg")
+                    .userId(user.getId())
+                    .build());
+            MockHttpSession session = new MockHttpSession();
+            session.setAttribute("userId", user.getId());
+            createProposal(session, receiverListing.getId(), offer.getId());
+        }
+        long multiple = countListByListingStatements(4);
+
+        // Then: 提案數不影響 SQL 數量
+        org.junit.jupiter.api.Assertions.assertEquals(single, multiple,
+                "提案數不應影響 SQL 數量：1 筆 " + single + "、4 筆 " + multiple);
+
+        System.out.println(" 輔助測試通過：刊登的提案列表 SQL 數量與提案數無關");
+    }
+
+    // 清空名稱快取與持久化內容後呼叫 /api/listings/{id}/proposals，回傳執行的 SQL 數量；
+    // 統計涵蓋整個 SessionFactory，背景工作（例如 outbox 輪詢）可能混入，取三次中的最小值
+    private long countListByListingStatements(int expected) throws Exception {
+        jakarta.persistence.EntityManager em = org.springframework.orm.jpa.EntityManagerFactoryUtils
+                .getTransactionalEntityManager(entityManagerFactory);
+        org.hibernate.stat.Statistics statistics = entityManagerFactory
+                .unwrap(org.hibernate.SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            long fewest = Long.MAX_VALUE;
+            for (int attempt = 0; attempt < 3; attempt++) {
+                userRepository.findAll().forEach(user -> userDisplayNameResolver.evict(user.getId()));
+                em.flush();
+                em.clear();
+                statistics.clear();
+                mockMvc.perform(get("/api/listings/" + receiverListing.getId() + "/proposals"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(expected))
+                        .andExpect(jsonPath("$[*].proposerDisplayName", everyItem(not(is("未知使用者")))))
+                        .andExpect(jsonPath("$[*].proposerItems[0].listingDisplay", everyItem(containsString("Artist"))));
+                fewest = Math.min(fewest, statistics.getPrepareStatementCount());
+            }
+            return fewest;
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    private Long createProposal(MockHttpSession session, Long listingId, Long offeredId) throws Exception {
+        String body = mockMvc.perform(post("/api/proposals")
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"listingId\": " + listingId + ", \"proposerListingIds\": [" + offeredId + "]}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private long lockedFacetCount() throws Exception {
+        String body = mockMvc.perform(get("/api/listings/facets").param("limit", "200"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        for (com.fasterxml.jackson.databind.JsonNode facet : objectMapper.readTree(body).get("statuses")) {
+            if ("LOCKED".equals(facet.get("value").asText())) {
+                return facet.get("count").asLong();
+            }
+        }
+        return 0;
+    }
+}
@@ -127,6 +127,15 @@ public class RecoveryTest {
     @Autowired
     private ProposalService proposalService;
 
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
     @SpyBean
     private EmailNotificationService emailNotificationService;
 
@@ -206,6 +215,7 @@ public class RecoveryTest {
     public void tearDown() {
         // 清理測試資料（按依賴順序）
         try {
+            outboxEventRepository.deleteAll();
             chatMessageRepository.deleteAll();
             chatRoomRepository.deleteAll();
             emailNotificationRepository.deleteAll();
@@ -272,6 +282,9 @@ public class RecoveryTest {
         var proposalDTO = proposalService.create(request, sessionB);
         System.out.println("✓ 提案創建成功，ID: " + proposalDTO.getId());
 
+        // 聊天室與郵件經 outbox 非同步投遞：直接投遞一次，不等背景輪詢
+        outboxDispatcher.dispatch();
+
         // 驗證提案已創建（主業務成功）
         long proposalCountAfter = proposalRepository.count();
         long chatRoomCountAfter = chatRoomRepository.count();
@@ -341,6 +354,7 @@ public class RecoveryTest {
 
         // 創建提案（郵件發送會失敗，但主流程應成功）
         var proposalDTO = proposalService.create(request, sessionB);
+        outboxDispatcher.dispatch();
 
         System.out.println("✓ 提案創建成功，ID: " + proposalDTO.getId());
 
@@ -423,6 +437,7 @@ public class RecoveryTest {
 
         // Step 2: 接受提案（觸發 Swap 創建）
         proposalService.accept(proposalId, sessionA);
+        outboxDispatcher.dispatch();
         System.out.println("Step 2 - 提案已接受");
 
         // Step 3: 模擬系統重啟（清除實體管理器快取）
@@ -525,6 +540,7 @@ public class RecoveryTest {
         request.setProposerListingIds(List.of(testListingB.getId())); // Offer User B's listing
 
         proposalService.create(request, sessionB);
+        outboxDispatcher.dispatch();
         System.out.println("Step 1 - 提案已創建，郵件發送失敗");
 
         // 等待異步任務完成
@@ -602,6 +618,124 @@ public class RecoveryTest {
         System.out.println("================================================\n");
     }
 
+    /**
+     * REC-06: 外寄件匣投遞重試（Outbox Retry）
+     *
+     * 測試場景：
+     * 提案的聊天室、系統訊息與郵件寫入 outbox_events，由 OutboxDispatcher 在交易外投遞。
+     * 聊天室尚未建立時，關聯 Swap 的事件投遞失敗，應保留並退避重試，之後補上聊天室即可投遞成功。
+     *
+     * 預期結果：
+     * - 失敗的事件保留在 outbox，記錄嘗試次數與錯誤，下次投遞時間延後
+     * - 聊天室建立後重試成功，事件自 outbox 刪除
+     */
+    @Test
+    @Order(6)
+    @DisplayName("REC-06: 外寄件匣投遞失敗後退避重試")
+    public void testOutboxRetry() {
+        System.out.println("\n========== REC-06: 外寄件匣投遞重試測試 ==========");
+
+        Proposal proposal = proposalRepository.save(Proposal.builder()
+                .listingId(testListingA.getId())
+                .proposerId(testUserB.getId())
+                .receiverId(testUserA.getId())
+                .status(Proposal.Status.ACCEPTED)
+                .build());
+        Swap swap = swapRepository.save(Swap.builder()
+                .listingId(testListingA.getId())
+                .proposalId(proposal.getId())
+                .aUserId(testUserA.getId())
+                .bUserId(testUserB.getId())
+                .status(Swap.Status.IN_PROGRESS)
+                .build());
+
+        // Step 1: 聊天室尚未建立，關聯事件投遞失敗
+        outboxService.linkChatRoomSwap(proposal.getId(), swap.getId());
+        outboxDispatcher.dispatch();
+
+        List<OutboxEvent> pending = outboxEventRepository.findAll();
+        assertThat(pending).as("失敗的事件應保留在 outbox").hasSize(1);
+        OutboxEvent failed = pending.get(0);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).contains("not created yet");
+        assertThat(failed.getNextAttemptAt()).as("下次投遞時間應延後").isAfter(LocalDateTime.now());
+        System.out.println("Step 1 - 投遞失敗，下次重試: " + failed.getNextAttemptAt());
+
+        // Step 2: 補上聊天室，並模擬退避時間已到
+        outboxService.createChatRoom(proposal.getId(), testUserB.getId(), testUserA.getId());
+        outboxDispatcher.dispatch();
+        failed.setNextAttemptAt(LocalDateTime.now());
+        outboxEventRepository.save(failed);
+        outboxDispatcher.dispatch();
+
+        // Then: 重試成功，事件已刪除，聊天室關聯到 Swap
+        assertThat(outboxEventRepository.findAll()).as("投遞成功的事件應刪除").isEmpty();
+        ChatRoom chatRoom = chatRoomRepository.findByProposalId(proposal.getId()).orElseThrow();
+        assertThat(chatRoom.getSwapId()).isEqualTo(swap.getId());
+
+        System.out.println("✓ REC-06 通過：outbox 事件投遞失敗後保留並重試成功");
+        System.out.println("================================================\n");
+    }
+
+    /**
+     * REC-07: 外寄件匣通知投遞失敗重試（Outbox Notification Retry）
+     *
+     * 測試場景：
+     * 提案通知寫入 outbox_events 後，投遞時寫入通知失敗（模擬資料庫暫時錯誤）。
+     * 錯誤不可被吞掉：事件應保留並退避重試，重試成功後才寫入通知並在提交後寄信。
+     *
+     * 預期結果：
+     * - 第一次投遞失敗，事件保留在 outbox，沒有寫入通知，也沒有寄信
+     * - 重試成功後事件刪除，通知只寫入一筆，並在投遞交易提交後寄出
+     */
+    @Test
+    @Order(7)
+    @DisplayName("REC-07: 外寄件匣通知寫入失敗後保留並重試")
+    public void testOutboxNotificationRetry() {
+        System.out.println("\n========== REC-07: 外寄件匣通知重試測試 ==========");
+
+        Proposal proposal = proposalRepository.save(Proposal.builder()
+                .listingId(testListingA.getId())
+                .proposerId(testUserB.getId())
+                .receiverId(testUserA.getId())
+                .status(Proposal.Status.PENDING)
+                .build());
+        doThrow(new RuntimeException("通知寫入暫時失敗"))
+                .doCallRealMethod()
+                .when(emailNotificationService)
+                .createNotificationOrThrow(any(), any(), any(), any(), any(Object[].class));
+
+        // Step 1: 投遞失敗，事件保留
+        outboxService.sendProposalNotification(proposal, EmailNotification.NotificationType.PROPOSAL_RECEIVED,
+                testUserA.getId());
+        outboxDispatcher.dispatch();
+
+        List<OutboxEvent> pending = outboxEventRepository.findAll();
+        assertThat(pending).as("失敗的通知事件應保留在 outbox").hasSize(1);
+        OutboxEvent failed = pending.get(0);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).contains("通知寫入暫時失敗");
+        assertThat(emailNotificationRepository.findAll()).as("失敗時不應寫入通知").isEmpty();
+        verify(emailNotificationService, never()).sendEmailAsync(any());
+        System.out.println("Step 1 - 通知投遞失敗，下次重試: " + failed.getNextAttemptAt());
+
+        // Step 2: 模擬退避時間已到
+        failed.setNextAttemptAt(LocalDateTime.now());
+        outboxEventRepository.save(failed);
+        outboxDispatcher.dispatch();
+
+        // Then: 重試成功，事件刪除，通知寫入一筆並在提交後寄出
+        assertThat(outboxEventRepository.findAll()).as("投遞成功的事件應刪除").isEmpty();
+        List<EmailNotification> notifications = emailNotificationRepository.findAll();
+        assertThat(notifications).hasSize(1);
+        assertThat(notifications.get(0).getRecipientId()).isEqualTo(testUserA.getId());
+        assertThat(notifications.get(0).getRelatedEntityId()).isEqualTo(proposal.getId());
+        verify(emailNotificationService, timeout(2000)).sendEmailAsync(any());
+
+        System.out.println("✓ REC-07 通過：通知寫入失敗不會被吞掉，事件保留並重試成功");
+        System.out.println("================================================\n");
+    }
+
     /**
      * 測試總結報告
      */
@@ -620,6 +754,8 @@ public class RecoveryTest {
         System.out.println("║  ✓ REC-03: 系統重啟狀態一致性                         ║");
         System.out.println("║  ✓ REC-04: 郵件發送重試機制                           ║");
         System.out.println("║  ✓ REC-05: 物流追蹤服務超時處理                       ║");
+        System.out.println("║  ✓ REC-06: 外寄件匣投遞重試                           ║");
+        System.out.println("║  ✓ REC-07: 外寄件匣通知重試                           ║");
         System.out.println("║                                                        ║");
         System.out.println("║  測試結論：                                            ║");
         System.out.println("║  系統具備生產環境所需的容錯能力與資料一致性保障。      ║");